@@ -10,3 +10,8 @@
 # این قانون به طور خاص برای رفع خطای اصلی اضافه شده است
 -keep class com.gemalto.jp2.JP2Decoder { *; }
 -dontwarn com.gemalto.jp2.**
+
+# سنجه‌های نمایشگر کش بخش‌های PDFView را از فیلد cacheManager با بازتاب می‌خوانند
+-keepclassmembers class com.github.barteksc.pdfviewer.PDFView {
+    com.github.barteksc.pdfviewer.CacheManager cacheManager;
+}
@@ -0,0 +1,101 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.graphics.Bitmap;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+
+/**
+ * مخزن بیت‌مپ‌های قابل استفاده مجدد برای رندر پشت‌سرهم تصاویر بندانگشتی
+ * تا هر رندر یک تخصیص بزرگ جدید نسازد. حجم کل بیت‌مپ‌های نگه‌داشته‌شده محدود است.
+ */
+final class BitmapPool {
+    static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static BitmapPool instance;
+
+    private final LinkedList<Bitmap> bitmaps = new LinkedList<>();
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    static synchronized BitmapPool getInstance() {
+        if (instance == null) {
+            instance = new BitmapPool();
+        }
+        return instance;
+    }
+
+    /** بیت‌مپی با ابعاد و پیکربندی خواسته‌شده برمی‌گرداند؛ محتوای آن پاک نشده است. */
+    Bitmap acquire(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        synchronized (this) {
+            Iterator<Bitmap> iterator = bitmaps.iterator();
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+                if (bitmap.getAllocationByteCount() >= needed) {
+                    iterator.remove();
+                    bytes -= bitmap.getAllocationByteCount();
+                    hits++;
+                    bitmap.reconfigure(width, height, config);
+                    return bitmap;
+                }
+            }
+            misses++;
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    /** بیت‌مپ را برای استفاده بعدی نگه می‌دارد یا اگر جا نباشد بازیافت می‌کند. */
+    synchronized void release(Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (bytes + size > maxBytes) {
+            bitmap.recycle();
+            return;
+        }
+        bitmaps.addFirst(bitmap);
+        bytes += size;
+    }
+
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        trimTo(this.maxBytes);
+    }
+
+    /** بیت‌مپ‌های کم‌استفاده‌تر را تا رسیدن به حجم داده‌شده بازیافت می‌کند. */
+    synchronized void trimTo(long targetBytes) {
+        while (bytes > targetBytes && !bitmaps.isEmpty()) {
+            Bitmap bitmap = bitmaps.removeLast();
+            bytes -= bitmap.getAllocationByteCount();
+            bitmap.recycle();
+        }
+    }
+
+    synchronized void clear() {
+        for (Bitmap bitmap : bitmaps) {
+            bitmap.recycle();
+        }
+        bitmaps.clear();
+        bytes = 0;
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("bitmaps", bitmaps.size());
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        return config == Bitmap.Config.RGB_565 ? 2 : 4;
+    }
+}
@@ -0,0 +1,359 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.tom_roush.pdfbox.io.MemoryUsageSetting;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.encryption.PDEncryption;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * کش مشترک اسناد باز PDFBox برای ابزارهای پلاگین.
+ * اسناد با سیاست LRU و بر اساس تعداد و حجم تخلیه می‌شوند و با شمارش ارجاع
+ * تا زمانی که کاری از آن‌ها استفاده می‌کند بسته نمی‌شوند.
+ * اسناد رمزگشایی‌شده (منابع رمزدار) عمر کوتاه و سقف تعداد جداگانه دارند و هنگام
+ * تخلیه، کلید رمزگشایی آن‌ها پیش از بستن سند صفر می‌شود.
+ */
+final class DocumentCache {
+    static final int DEFAULT_MAX_DOCUMENTS = 4;
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    static final int MAX_PROTECTED_DOCUMENTS = 2;
+    static final long PROTECTED_TTL_MILLIS = 60_000;
+
+    private static DocumentCache instance;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Object> loadLocks = new HashMap<>();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private int maxDocuments = DEFAULT_MAX_DOCUMENTS;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    static synchronized DocumentCache getInstance() {
+        if (instance == null) {
+            instance = new DocumentCache();
+        }
+        return instance;
+    }
+
+    private static final class Entry {
+        final String key;
+        final PDDocument document;
+        final long sizeBytes;
+        final boolean protectedSource;
+        // سهم سند از بودجه حافظه؛ اسنادی که با فایل موقت بارگذاری شده‌اند سهمی ندارند
+        MemoryBudget.Reservation reservation;
+        int refCount;
+        long lastUsed = SystemClock.uptimeMillis();
+        boolean evicted;
+
+        Entry(String key, PDDocument document, long sizeBytes, boolean protectedSource) {
+            this.key = key;
+            this.document = document;
+            this.sizeBytes = sizeBytes;
+            this.protectedSource = protectedSource;
+        }
+    }
+
+    /**
+     * ارجاعی به یک سند کش‌شده. پس از پایان کار باید بسته شود.
+     * PDDocument امن برای چند نخ نیست، پس استفاده‌کنندگان روی خود سند همگام می‌شوند.
+     */
+    final class Lease implements Closeable {
+        private final Entry entry;
+        private boolean released;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        PDDocument getDocument() {
+            return entry.document;
+        }
+
+        @Override
+        public void close() {
+            synchronized (DocumentCache.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                entry.refCount--;
+                entry.lastUsed = SystemClock.uptimeMillis();
+                if (entry.protectedSource && entry.refCount == 0) {
+                    // زمان انقضای هر سند جداگانه و با خود سند به عنوان توکن زمان‌بندی می‌شود
+                    handler.removeCallbacksAndMessages(entry);
+                    handler.postAtTime(DocumentCache.this::expireProtected, entry,
+                            entry.lastUsed + PROTECTED_TTL_MILLIS);
+                }
+                if (entry.evicted) {
+                    closeIfUnused(entry);
+                } else {
+                    trim();
+                }
+            }
+        }
+    }
+
+    Lease acquire(PdfSource source) throws IOException {
+        final String key = source.key();
+        Object loadLock;
+        synchronized (this) {
+            Lease lease = acquireCached(key);
+            if (lease != null) {
+                return lease;
+            }
+            loadLock = loadLocks.get(key);
+            if (loadLock == null) {
+                loadLock = new Object();
+                loadLocks.put(key, loadLock);
+            }
+        }
+
+        // بارگذاری بیرون از قفل کش انجام می‌شود؛ کارهای همزمان روی همین سند
+        // منتظر اولین بارگذاری می‌مانند تا سند فقط یک بار تجزیه شود
+        synchronized (loadLock) {
+            synchronized (this) {
+                Lease lease = acquireCached(key);
+                if (lease != null) {
+                    return lease;
+                }
+                misses++;
+            }
+            try {
+                MemoryBudget.Reservation reservation = reserve(source);
+                PDDocument document;
+                try {
+                    document = reservation != null
+                            ? source.load()
+                            : source.load(MemoryUsageSetting.setupTempFileOnly());
+                } catch (IOException | RuntimeException e) {
+                    // رمز نادرست یا فایل معیوب؛ سهم رزروشده باید به بودجه برگردد
+                    if (reservation != null) {
+                        reservation.close();
+                    }
+                    throw e;
+                }
+                synchronized (this) {
+                    Entry entry = new Entry(key, document, source.sizeBytes(), source.isProtected());
+                    entry.reservation = reservation;
+                    entries.put(key, entry);
+                    totalBytes += entry.sizeBytes;
+                    entry.refCount++;
+                    trim();
+                    return new Lease(entry);
+                }
+            } finally {
+                synchronized (this) {
+                    loadLocks.remove(key);
+                }
+            }
+        }
+    }
+
+    /** فقط اگر سند از قبل در کش باشد ارجاعی به آن برمی‌گرداند و در غیر این صورت null. */
+    synchronized Lease peek(PdfSource source) {
+        return acquireCached(source.key());
+    }
+
+    /**
+     * سهم سند از بودجه حافظه؛ اگر جا نباشد ابتدا به اندازه لازم اسناد بیکار تخلیه می‌شوند و
+     * در نهایت null برمی‌گردد تا سند با بافرهای فایل موقت بارگذاری شود.
+     */
+    private MemoryBudget.Reservation reserve(PdfSource source) {
+        MemoryBudget budget = MemoryBudget.getInstance();
+        long bytes = source.memoryEstimate();
+        MemoryBudget.Reservation reservation = budget.tryReserve(MemoryBudget.DOCUMENTS, bytes);
+        if (reservation == null && evictForBudget(bytes)) {
+            reservation = budget.tryReserve(MemoryBudget.DOCUMENTS, bytes);
+        }
+        if (reservation == null) {
+            budget.recordDegraded(MemoryBudget.DOCUMENTS);
+        }
+        return reservation;
+    }
+
+    /**
+     * اسناد بیکاری که سهمی از بودجه دارند را از قدیمی‌ترین استفاده تخلیه می‌کند تا `bytes`
+     * در بودجه جا شود. اگر تخلیه همه آن‌ها هم کافی نباشد هیچ سندی تخلیه نمی‌شود تا یک
+     * درخواست بزرگ کل کش را خالی نکند. برمی‌گرداند که آیا اکنون جا هست.
+     */
+    synchronized boolean evictForBudget(long bytes) {
+        MemoryBudget budget = MemoryBudget.getInstance();
+        long available = budget.available();
+        if (available >= bytes) {
+            return true;
+        }
+        long idleBytes = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.refCount == 0 && entry.reservation != null) {
+                idleBytes += entry.reservation.bytes;
+            }
+        }
+        if (available + idleBytes < bytes) {
+            return false;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (budget.available() < bytes && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.refCount > 0 || entry.reservation == null) {
+                continue;
+            }
+            evict(entry);
+            iterator.remove();
+        }
+        return budget.available() >= bytes;
+    }
+
+    private Lease acquireCached(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        hits++;
+        entry.refCount++;
+        return new Lease(entry);
+    }
+
+    synchronized void configure(Integer maxDocuments, Number maxBytes) {
+        if (maxDocuments != null) {
+            this.maxDocuments = Math.max(0, maxDocuments);
+        }
+        if (maxBytes != null) {
+            this.maxBytes = Math.max(0, maxBytes.longValue());
+        }
+        trim();
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("documents", entries.size());
+        stats.put("bytes", totalBytes);
+        stats.put("maxDocuments", maxDocuments);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    /** سند این منبع را از کش خارج می‌کند؛ اگر در حال استفاده باشد پس از آخرین ارجاع بسته می‌شود. */
+    synchronized void remove(PdfSource source) {
+        Entry entry = entries.remove(source.key());
+        if (entry != null) {
+            evict(entry);
+        }
+    }
+
+    synchronized void clear() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            evict(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * اسناد بی‌استفاده را تا رسیدن به حدهای داده‌شده (کمتر از تنظیمات) تخلیه می‌کند؛
+     * برای کاهش حافظه هنگام فشار سیستم. حدهای پیکربندی‌شده تغییر نمی‌کنند.
+     */
+    synchronized void trimTo(int documents, long bytes) {
+        trim(Math.min(documents, maxDocuments), Math.min(bytes, maxBytes));
+    }
+
+    private void trim() {
+        trim(maxDocuments, maxBytes);
+    }
+
+    private void trim(int maxDocuments, long maxBytes) {
+        trimProtected();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxDocuments || totalBytes > maxBytes) && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.refCount > 0) {
+                continue;
+            }
+            evict(entry);
+            iterator.remove();
+        }
+    }
+
+    /** اسناد رمزگشایی‌شده بیکار پس از PROTECTED_TTL_MILLIS و مازاد بر سقف تعداد تخلیه می‌شوند. */
+    private void trimProtected() {
+        long now = SystemClock.uptimeMillis();
+        int protectedCount = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.protectedSource) {
+                protectedCount++;
+            }
+        }
+        // پیمایش از قدیمی‌ترین استفاده
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.protectedSource || entry.refCount > 0) {
+                continue;
+            }
+            if (protectedCount > MAX_PROTECTED_DOCUMENTS || now - entry.lastUsed >= PROTECTED_TTL_MILLIS) {
+                evict(entry);
+                iterator.remove();
+                protectedCount--;
+            }
+        }
+    }
+
+    private synchronized void expireProtected() {
+        trimProtected();
+    }
+
+    private void evict(Entry entry) {
+        handler.removeCallbacksAndMessages(entry);
+        entry.evicted = true;
+        totalBytes -= entry.sizeBytes;
+        evictions++;
+        closeIfUnused(entry);
+    }
+
+    private void closeIfUnused(Entry entry) {
+        if (entry.refCount > 0) {
+            return;
+        }
+        if (entry.protectedSource) {
+            wipeKey(entry.document);
+        }
+        try {
+            entry.document.close();
+        } catch (IOException ignored) {
+        }
+        if (entry.reservation != null) {
+            entry.reservation.close();
+            entry.reservation = null;
+        }
+    }
+
+    /** کلید رمزگشایی در حافظه سند صفر می‌شود تا پس از بستن در heap باقی نماند. */
+    private static void wipeKey(PDDocument document) {
+        try {
+            PDEncryption encryption = document.getEncryption();
+            if (encryption != null && encryption.hasSecurityHandler()) {
+                byte[] key = encryption.getSecurityHandler().getEncryptionKey();
+                if (key != null) {
+                    Arrays.fill(key, (byte) 0);
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.tom_roush.pdfbox.cos.COSDictionary;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDDocumentInformation;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
+import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * اطلاعات سند بدون رندر: تعداد و ابعاد صفحات، فهرست مطالب و مشخصات سند.
+ * فقط xref، درخت صفحات و outline خوانده می‌شوند و جریان‌های محتوا تجزیه نمی‌شوند.
+ * نتیجه برای هر منبع (با کلید شامل زمان تغییر فایل) در یک کش LRU کوچک نگه داشته می‌شود.
+ * اسنادی که در کش اسناد ابزارها نیستند فقط برای همین کار باز و بسته می‌شوند تا پیمایش
+ * کتابخانه‌ای از اسناد، اسناد پرکاربرد کش را بیرون نکند.
+ */
+final class DocumentInfoReader {
+    static final int MAX_ENTRIES = 256;
+    // حد عمق فهرست مطالب در برابر outlineهای معیوب و حلقه‌دار
+    private static final int MAX_OUTLINE_DEPTH = 32;
+
+    private static DocumentInfoReader instance;
+
+    private final LinkedHashMap<String, Map<String, Object>> infos =
+            new LinkedHashMap<String, Map<String, Object>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    static synchronized DocumentInfoReader getInstance() {
+        if (instance == null) {
+            instance = new DocumentInfoReader();
+        }
+        return instance;
+    }
+
+    /** روی صف کاری فراخوانی شود. */
+    Map<String, Object> read(PdfSource source) throws IOException {
+        String key = source.key();
+        synchronized (this) {
+            Map<String, Object> info = infos.get(key);
+            if (info != null) {
+                return info;
+            }
+        }
+        Map<String, Object> info;
+        DocumentCache.Lease lease = DocumentCache.getInstance().peek(source);
+        if (lease != null) {
+            try {
+                PDDocument document = lease.getDocument();
+                synchronized (document) {
+                    info = describe(document);
+                }
+            } finally {
+                lease.close();
+            }
+        } else {
+            try (PDDocument document = source.load()) {
+                info = describe(document);
+            }
+        }
+        synchronized (this) {
+            infos.put(key, info);
+        }
+        return info;
+    }
+
+    synchronized void clear() {
+        infos.clear();
+    }
+
+    private static Map<String, Object> describe(PDDocument document) {
+        // اندیس صفحات بر اساس دیکشنری آن‌ها برای یافتن مقصد آیتم‌های فهرست مطالب
+        Map<COSDictionary, Integer> pageIndexes = new IdentityHashMap<>();
+        List<Map<String, Object>> pages = new ArrayList<>();
+        for (PDPage page : document.getPages()) {
+            pageIndexes.put(page.getCOSObject(), pages.size());
+            // ناحیه قابل مشاهده، مانند getPageSizes و سایر ابزارها
+            PDRectangle box = page.getCropBox();
+            Map<String, Object> size = new HashMap<>();
+            size.put("width", (double) box.getWidth());
+            size.put("height", (double) box.getHeight());
+            size.put("rotation", page.getRotation());
+            pages.add(size);
+        }
+
+        Map<String, Object> info = new HashMap<>();
+        info.put("pageCount", pages.size());
+        info.put("pages", pages);
+        info.put("version", (double) document.getVersion());
+        info.put("encrypted", document.isEncrypted());
+        info.put("metadata", metadata(document.getDocumentInformation()));
+
+        List<Map<String, Object>> outline = new ArrayList<>();
+        PDDocumentOutline root = document.getDocumentCatalog().getDocumentOutline();
+        if (root != null) {
+            Set<COSDictionary> visited = Collections.newSetFromMap(new IdentityHashMap<COSDictionary, Boolean>());
+            readOutline(document, root.getFirstChild(), pageIndexes, visited, 0, outline);
+        }
+        info.put("outline", outline);
+        return info;
+    }
+
+    private static void readOutline(PDDocument document, PDOutlineItem item, Map<COSDictionary, Integer> pageIndexes,
+                                    Set<COSDictionary> visited, int depth, List<Map<String, Object>> target) {
+        for (; item != null && depth < MAX_OUTLINE_DEPTH && visited.add(item.getCOSObject()); item = item.getNextSibling()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("title", item.getTitle());
+            Integer page = null;
+            try {
+                PDPage destination = item.findDestinationPage(document);
+                if (destination != null) {
+                    page = pageIndexes.get(destination.getCOSObject());
+                }
+            } catch (IOException ignored) {
+                // مقصد نامعتبر؛ آیتم بدون صفحه گزارش می‌شود
+            }
+            entry.put("page", page);
+            List<Map<String, Object>> children = new ArrayList<>();
+            readOutline(document, item.getFirstChild(), pageIndexes, visited, depth + 1, children);
+            entry.put("children", children);
+            target.add(entry);
+        }
+    }
+
+    private static Map<String, Object> metadata(PDDocumentInformation information) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("title", information.getTitle());
+        metadata.put("author", information.getAuthor());
+        metadata.put("subject", information.getSubject());
+        metadata.put("keywords", information.getKeywords());
+        metadata.put("creator", information.getCreator());
+        metadata.put("producer", information.getProducer());
+        metadata.put("creationDate", millis(information.getCreationDate()));
+        metadata.put("modificationDate", millis(information.getModificationDate()));
+        return metadata;
+    }
+
+    private static Long millis(Calendar calendar) {
+        return calendar != null ? calendar.getTimeInMillis() : null;
+    }
+}
@@ -0,0 +1,222 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ثبت اسناد باز نمایشگرها با شمارش ارجاع. نمایشگرهایی که یک منبع را نشان می‌دهند
+ * یک فایل موقت (برای pdfData)، تعداد صفحات و ابعاد صفحات را به اشتراک می‌گذارند و
+ * چون مسیر فایل یکسان است، ابزارها نیز همان سند کش‌شده PDFBox را به کار می‌برند.
+ * سند Pdfium مشترک نیست: android-pdf-viewer سند خود را در recycle هر نمایشگر می‌بندد،
+ * پس هر نمایشگر سند Pdfium جداگانه‌ای از همان فایل باز می‌کند.
+ * با آزاد شدن آخرین ارجاع، سند (فایلی یا موقت) از کش خارج و فایل موقت حذف می‌شود.
+ */
+final class DocumentRegistry {
+    private static DocumentRegistry instance;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    static synchronized DocumentRegistry getInstance() {
+        if (instance == null) {
+            instance = new DocumentRegistry();
+        }
+        return instance;
+    }
+
+    private static final class Entry {
+        final String key;
+        final PdfSource source;
+        // فایل موقتی که داده‌های بایت در آن نوشته شده‌اند؛ برای منابع فایلی null است
+        final File spillFile;
+        int refCount;
+        int pageCount = -1;
+        List<Map<String, Object>> pageSizes;
+        // منابع ارجاع‌ها بر اساس رمز؛ هر کدام کلید جداگانه‌ای در کش اسناد دارند
+        final Map<String, PdfSource> sources = new HashMap<>();
+
+        Entry(String key, PdfSource source, File spillFile) {
+            this.key = key;
+            this.source = source;
+            this.spillFile = spillFile;
+        }
+    }
+
+    /**
+     * ارجاع یک نمایشگر به سند ثبت‌شده؛ در dispose نمایشگر باید آزاد شود.
+     * رمز به ارجاع تعلق دارد، چون فایل موقت داده‌های یکسان بین نمایشگرها مشترک است.
+     */
+    final class Handle {
+        private final Entry entry;
+        private final PdfSource source;
+        private boolean released;
+
+        private Handle(Entry entry, PdfSource source) {
+            this.entry = entry;
+            this.source = source;
+            entry.sources.put(source.password != null ? source.password : "", source);
+        }
+
+        /** منبعی (همراه با رمز این نمایشگر) که نمایشگر و ابزارها از آن می‌خوانند. */
+        PdfSource getSource() {
+            return source;
+        }
+
+        File getSpillFile() {
+            return entry.spillFile;
+        }
+
+        /** تعداد صفحات پس از اولین بارگذاری سند در هر نمایشگری؛ پیش از آن -1. */
+        int getPageCount() {
+            synchronized (DocumentRegistry.this) {
+                return entry.pageCount;
+            }
+        }
+
+        void setPageCount(int pageCount) {
+            synchronized (DocumentRegistry.this) {
+                entry.pageCount = pageCount;
+            }
+        }
+
+        /**
+         * ابعاد اصلی صفحات (بر حسب point و با احتساب چرخش) که یک بار با PDFBox خوانده و
+         * برای همه نمایشگرهای این سند نگه داشته می‌شود. روی صف کاری فراخوانی شود.
+         */
+        List<Map<String, Object>> getPageSizes() throws IOException {
+            synchronized (DocumentRegistry.this) {
+                if (entry.pageSizes != null) {
+                    return entry.pageSizes;
+                }
+            }
+            List<Map<String, Object>> sizes = readPageSizes(source);
+            synchronized (DocumentRegistry.this) {
+                entry.pageSizes = sizes;
+                entry.pageCount = sizes.size();
+            }
+            return sizes;
+        }
+
+        void release() {
+            synchronized (DocumentRegistry.this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                if (--entry.refCount > 0) {
+                    return;
+                }
+                entries.remove(entry.key);
+            }
+            // سند PDFBox با همه رمزهایی که ارجاع‌ها به کار بردند از کش خارج می‌شود؛ بستن
+            // آن روی صف کاری انجام می‌شود. پس از حذف مدخل فهرست منابع دیگر تغییر نمی‌کند.
+            final List<PdfSource> sources = new ArrayList<>(entry.sources.values());
+            sources.add(entry.source);
+            WorkerPool.getInstance().post(() -> {
+                for (PdfSource cached : sources) {
+                    DocumentCache.getInstance().remove(cached);
+                }
+                if (entry.spillFile != null) {
+                    //noinspection ResultOfMethodCallIgnored
+                    entry.spillFile.delete();
+                }
+            });
+        }
+    }
+
+    /** سند فایلی؛ کلید از مسیر، زمان تغییر و اندازه فایل (و رمز) ساخته می‌شود. */
+    synchronized Handle acquire(String filePath, String password) {
+        PdfSource source = PdfSource.of(filePath, null, password);
+        String key = source.key();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, source, null);
+            entries.put(key, entry);
+        }
+        entry.refCount++;
+        return new Handle(entry, source);
+    }
+
+    /**
+     * ارجاع تازه به همان سند با رمز دیگر؛ فایل موقت داده‌ها دوباره نوشته نمی‌شود.
+     * ارجاع قبلی باید جداگانه آزاد شود.
+     */
+    synchronized Handle withPassword(Handle handle, String password) {
+        Entry entry = handle.entry;
+        if (entry.spillFile == null) {
+            return acquire(entry.source.filePath, password);
+        }
+        entry.refCount++;
+        return new Handle(entry, PdfSource.of(entry.spillFile.getAbsolutePath(), null, password));
+    }
+
+    /**
+     * داده‌های بایت با هش محتوا شناسایی می‌شوند؛ اگر نمایشگر دیگری همین داده‌ها را باز کرده
+     * باشد فایل موقت آن دوباره استفاده می‌شود و در غیر این صورت فایل تازه نوشته می‌شود.
+     * هش و نوشتن فایل زمان‌بر است و روی صف کاری فراخوانی می‌شود.
+     */
+    Handle acquireSpilled(byte[] data, String password, Context context) throws IOException {
+        String key = "sha256:" + PdfSource.sha256Hex(data);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                entry.refCount++;
+                return new Handle(entry, PdfSource.of(entry.spillFile.getAbsolutePath(), null, password));
+            }
+        }
+        File file = PdfSource.spill(data, context);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                // نمایشگر دیگری همزمان همین داده‌ها را نوشته است
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            } else {
+                entry = new Entry(key, PdfSource.of(file.getAbsolutePath(), null), file);
+                entries.put(key, entry);
+            }
+            entry.refCount++;
+            return new Handle(entry, PdfSource.of(entry.spillFile.getAbsolutePath(), null, password));
+        }
+    }
+
+    synchronized Map<String, Object> getStats() {
+        int views = 0;
+        for (Entry entry : entries.values()) {
+            views += entry.refCount;
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("documents", entries.size());
+        stats.put("views", views);
+        return stats;
+    }
+
+    /** ابعاد صفحات با PDFBox از کش اسناد ابزارها. */
+    static List<Map<String, Object>> readPageSizes(PdfSource source) throws IOException {
+        try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+            PDDocument document = lease.getDocument();
+            synchronized (document) {
+                List<Map<String, Object>> sizes = new ArrayList<>(document.getNumberOfPages());
+                for (PDPage page : document.getPages()) {
+                    PDRectangle box = page.getCropBox();
+                    boolean rotated = page.getRotation() % 180 != 0;
+                    Map<String, Object> size = new HashMap<>();
+                    size.put("width", (double) (rotated ? box.getHeight() : box.getWidth()));
+                    size.put("height", (double) (rotated ? box.getWidth() : box.getHeight()));
+                    sizes.add(size);
+                }
+                return Collections.unmodifiableList(sizes);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ادغام رویدادهای پرتکرار نمایشگر (تغییر صفحه و موقعیت) پیش از ارسال به Dart.
+ * از هر رویداد فقط آخرین مقدار نگه داشته می‌شود. در حالت immediate همه رویدادها بی‌درنگ،
+ * در حالت throttle حداکثر یک بار در هر بازه (همراه با آخرین مقدار در انتها) و در حالت
+ * scrollEnd فقط پس از توقف اسکرول به مدت یک بازه ارسال می‌شوند.
+ * همه متدها روی نخ اصلی فراخوانی می‌شوند.
+ */
+final class EventCoalescer {
+    static final String MODE_IMMEDIATE = "immediate";
+    static final String MODE_THROTTLE = "throttle";
+    static final String MODE_SCROLL_END = "scrollEnd";
+
+    static final long DEFAULT_THROTTLE_MILLIS = 100;
+    static final long DEFAULT_SCROLL_END_MILLIS = 150;
+
+    interface Sender {
+        void send(String method, Map<String, Object> arguments);
+    }
+
+    /** زمان‌بندی روی نخ اصلی؛ در آزمون‌ها با ساعت دستی جایگزین می‌شود. */
+    interface Scheduler {
+        long now();
+
+        void postDelayed(Runnable runnable, long delayMillis);
+
+        void remove(Runnable runnable);
+    }
+
+    private static final class MainScheduler implements Scheduler {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public long now() {
+            return SystemClock.uptimeMillis();
+        }
+
+        @Override
+        public void postDelayed(Runnable runnable, long delayMillis) {
+            handler.postDelayed(runnable, delayMillis);
+        }
+
+        @Override
+        public void remove(Runnable runnable) {
+            handler.removeCallbacks(runnable);
+        }
+    }
+
+    private final Scheduler scheduler;
+    private final Map<String, Map<String, Object>> pending = new LinkedHashMap<>();
+    private final Runnable flush = this::flush;
+    private final Sender sender;
+    private final String mode;
+    private final long intervalMillis;
+    private long lastFlushAt;
+    private boolean scheduled;
+
+    EventCoalescer(String mode, Long intervalMillis, Sender sender) {
+        this(mode, intervalMillis, sender, new MainScheduler());
+    }
+
+    EventCoalescer(String mode, Long intervalMillis, Sender sender, Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.mode = MODE_THROTTLE.equals(mode) || MODE_SCROLL_END.equals(mode) ? mode : MODE_IMMEDIATE;
+        if (intervalMillis != null && intervalMillis > 0) {
+            this.intervalMillis = intervalMillis;
+        } else {
+            this.intervalMillis = MODE_SCROLL_END.equals(this.mode) ? DEFAULT_SCROLL_END_MILLIS : DEFAULT_THROTTLE_MILLIS;
+        }
+        this.sender = sender;
+    }
+
+    boolean isImmediate() {
+        return MODE_IMMEDIATE.equals(mode);
+    }
+
+    void post(String method, Map<String, Object> arguments) {
+        if (isImmediate()) {
+            sender.send(method, arguments);
+            return;
+        }
+        pending.put(method, arguments);
+        touch();
+    }
+
+    /**
+     * فعالیت اسکرول بدون رویداد تازه؛ در حالت scrollEnd ارسال را تا توقف اسکرول عقب می‌اندازد.
+     */
+    void touch() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        if (MODE_SCROLL_END.equals(mode)) {
+            scheduler.remove(flush);
+            scheduler.postDelayed(flush, intervalMillis);
+            scheduled = true;
+            return;
+        }
+        if (scheduled) {
+            return;
+        }
+        long wait = lastFlushAt + intervalMillis - scheduler.now();
+        if (wait <= 0) {
+            flush();
+        } else {
+            scheduler.postDelayed(flush, wait);
+            scheduled = true;
+        }
+    }
+
+    void flush() {
+        scheduled = false;
+        scheduler.remove(flush);
+        lastFlushAt = scheduler.now();
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Map<String, Object>>> events = new ArrayList<>(pending.entrySet());
+        pending.clear();
+        for (Map.Entry<String, Map<String, Object>> event : events) {
+            sender.send(event.getKey(), event.getValue());
+        }
+    }
+
+    /** رویدادهای در انتظار ارسال می‌شوند؛ برای تعویض تنظیمات پیش از جایگزینی. */
+    void dispose(boolean sendPending) {
+        if (sendPending) {
+            flush();
+        }
+        scheduler.remove(flush);
+        pending.clear();
+        scheduled = false;
+    }
+}
@@ -1,10 +1,12 @@
 package io.endigo.plugins.pdfviewflutter;
 
 import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Base64;
 import android.view.View;
 
 import com.github.barteksc.pdfviewer.PDFView;
@@ -16,24 +18,18 @@ import com.github.barteksc.pdfviewer.listener.OnRenderListener;
 import com.github.barteksc.pdfviewer.util.FitPolicy;
 
 import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
-import com.tom_roush.pdfbox.contentstream.PDFStreamEngine;
-import com.tom_roush.pdfbox.contentstream.operator.Operator;
-import com.tom_roush.pdfbox.cos.COSBase;
-import com.tom_roush.pdfbox.cos.COSName;
-import com.tom_roush.pdfbox.io.IOUtils;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
 import com.tom_roush.pdfbox.pdmodel.PDPage;
-import com.tom_roush.pdfbox.pdmodel.PDResources;
-import com.tom_roush.pdfbox.pdmodel.graphics.PDXObject;
-import com.tom_roush.pdfbox.pdmodel.graphics.image.PDImageXObject;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.MethodCall;
@@ -43,17 +39,51 @@ import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.platform.PlatformView;
 
 public class FlutterPDFView implements PlatformView, MethodCallHandler {
-    private final PDFView pdfView;
+    // نمایشگرهای زنده برای آزاد کردن کش رندر هنگام فشار حافظه؛ فقط روی نخ اصلی
+    private static final Set<FlutterPDFView> liveViews = new HashSet<>();
+
+    private static final int DEFAULT_HIGHLIGHT_COLOR = 0x66FFEB3B;
+
+    private final ObservedPDFView pdfView;
     private final MethodChannel methodChannel;
     private final LinkHandler linkHandler;
     private final Context context;
 
     private String filePath;
     private byte[] pdfData;
+    // ارجاع مشترک به سند (فایل یا pdfData نوشته‌شده در فایل موقت)؛ در dispose آزاد می‌شود
+    private DocumentRegistry.Handle document;
+    // سند در حال دریافت تکه‌ای از Dart
+    private StreamingDocument streaming;
+    // تنظیمات بارگذاری؛ تغییرات چیدمان در updateSettings در همین نقشه ثبت می‌شوند
+    private final Map<String, Object> loadParams;
+    private boolean loadStarted;
+    // بزرگ‌نمایی و موقعیت پیش از بارگذاری دوباره؛ پس از onLoad بازگردانده می‌شود
+    private SavedPosition savedPosition;
+    private RenderProfile renderProfile;
+    // سهم کش بخش‌های این نمایشگر از بودجه حافظه پلاگین
+    private MemoryBudget.Reservation viewReservation;
+    private boolean disposed;
+    // کادرهای برجسته هر صفحه به صورت نسبتی از ابعاد صفحه
+    private final Map<Integer, List<RectF>> highlights = new HashMap<>();
+    private final Paint highlightPaint = new Paint();
+    // فقط در حالت سنجه‌ها مقدار دارد
+    private final ViewMetrics metrics;
+    private final Handler metricsHandler = new Handler(Looper.getMainLooper());
+    private Runnable metricsPush;
+    // ادغام رویدادهای صفحه و موقعیت؛ onScroll جریان موقعیت را فعال می‌کند
+    private EventCoalescer eventCoalescer;
+    private String eventMode;
+    private Long eventInterval;
+    private boolean positionEvents;
+
     @SuppressWarnings("unchecked")
     FlutterPDFView(Context context, BinaryMessenger messenger, int id, Map<String, Object> params) {
         this.context = context;
-        pdfView = new PDFView(context, null);
+        this.loadParams = params;
+        pdfView = new ObservedPDFView(context);
+        liveViews.add(this);
+        renderProfile = RenderProfile.from(params);
 
         PDFBoxResourceLoader.init(context);
 
@@ -63,61 +93,297 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
         methodChannel.setMethodCallHandler(this);
         linkHandler = new PDFLinkHandler(context, pdfView, methodChannel, preventLinkNavigation);
 
-        PDFView.Configurator config = null;
+        eventMode = getString(params, "eventMode");
+        eventInterval = getLong(params, "eventInterval");
+        eventCoalescer = new EventCoalescer(eventMode, eventInterval, this::sendEvent);
+        positionEvents = getBoolean(params, "onScroll");
+
+        metrics = getBoolean(params, "metrics") ? new ViewMetrics(pdfView) : null;
+        Object metricsInterval = params.get("metricsInterval");
+        if (metrics != null && metricsInterval != null) {
+            startMetricsPush(((Number) metricsInterval).longValue());
+        }
+
+        Object backgroundColor = params.get("backgroundColor");
+        if (backgroundColor != null) {
+            int color = ((Number) backgroundColor).intValue();
+            pdfView.setBackgroundColor(color);
+        }
+
         if (params.get("filePath") != null) {
             this.filePath = (String) params.get("filePath");
             this.pdfData = null;
-            config = pdfView.fromUri(getURI(this.filePath));
+            document = DocumentRegistry.getInstance().acquire(this.filePath, getString(params, "password"));
+            load(pdfView.fromUri(getURI(this.filePath)), params);
         } else if (params.get("pdfData") != null) {
-            this.pdfData = (byte[]) params.get("pdfData");
+            this.pdfData = (byte[]) params.remove("pdfData");
             this.filePath = null;
-            config = pdfView.fromBytes(this.pdfData);
+            if (getBoolean(params, "spillPdfData")) {
+                spillAndLoad(params);
+            } else {
+                load(pdfView.fromBytes(this.pdfData), params);
+            }
+        } else if (getBoolean(params, "streaming")) {
+            Long streamLength = getLong(params, "streamLength");
+            try {
+                streaming = new StreamingDocument(context, streamLength != null ? streamLength : 0);
+            } catch (IOException e) {
+                Map<String, Object> args = new HashMap<>();
+                args.put("error", e.toString());
+                sendEvent("onError", args);
+            }
         }
+    }
 
-        Object backgroundColor = params.get("backgroundColor");
-        if (backgroundColor != null) {
-            int color = ((Number) backgroundColor).intValue();
-            pdfView.setBackgroundColor(color);
+    /**
+     * تکه بعدی سند در حال دریافت؛ روی صف کاری نوشته و پس از آن پاسخ داده می‌شود و پیشرفت
+     * با رویداد onLoadProgress گزارش می‌شود.
+     */
+    private void appendData(MethodCall call, Result result) {
+        final StreamingDocument stream = streaming;
+        if (stream == null || stream.isComplete()) {
+            result.error("NotStreaming", "This view is not receiving a streamed document.", null);
+            return;
+        }
+        final byte[] data = call.argument("data");
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, 0, result,
+                "StreamError", "Failed to write streamed PDF data.") {
+            @Override
+            protected Object execute() throws IOException {
+                stream.append(data);
+                final Map<String, Object> progress = stream.progress();
+                // پیشرفت دریافت مستقیم فرستاده می‌شود؛ در حالت scrollEnd ادغام‌کننده آن را تا پایان نگه می‌داشت
+                handler.post(() -> {
+                    if (!disposed) {
+                        sendEvent("onLoadProgress", progress);
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
+    /** پایان دریافت؛ در صورت خطای منبع به onError گزارش و در غیر این صورت سند بارگذاری می‌شود. */
+    private void finishData(MethodCall call, Result result) {
+        if (streaming == null || streaming.isComplete()) {
+            result.error("NotStreaming", "This view is not receiving a streamed document.", null);
+            return;
+        }
+        String error = call.argument("error");
+        if (error == null) {
+            try {
+                streaming.finish();
+            } catch (IOException e) {
+                error = e.toString();
+            }
+        }
+        if (error != null) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("error", error);
+            sendEvent("onError", args);
+            result.success(null);
+            return;
+        }
+        sendEvent("onLoadProgress", streaming.progress());
+        File file = streaming.getFile();
+        filePath = file.getAbsolutePath();
+        document = DocumentRegistry.getInstance().acquire(filePath, getString(loadParams, "password"));
+        load(pdfView.fromFile(file), loadParams);
+        result.success(null);
+    }
+
+    /**
+     * داده‌ها یک بار روی صف کاری در فایل موقت نوشته می‌شوند و نمایشگر و PDFBox هر دو
+     * از همان فایل می‌خوانند تا آرایه بایت بزرگ پس از آن در حافظه نگه داشته نشود.
+     * نمایشگرهای دیگر همین داده‌ها از همان فایل استفاده می‌کنند.
+     * در صورت خطا در نوشتن، سند مانند قبل از حافظه بارگذاری می‌شود.
+     */
+    private void spillAndLoad(final Map<String, Object> params) {
+        final byte[] data = this.pdfData;
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, 0, new Result() {
+            @Override
+            public void success(Object o) {
+                DocumentRegistry.Handle handle = (DocumentRegistry.Handle) o;
+                if (disposed) {
+                    handle.release();
+                    return;
+                }
+                document = handle;
+                filePath = handle.getSpillFile().getAbsolutePath();
+                pdfData = null;
+                load(pdfView.fromFile(handle.getSpillFile()), params);
+            }
+
+            @Override
+            public void error(String code, String message, Object details) {
+                if (!disposed) {
+                    load(pdfView.fromBytes(data), params);
+                }
+            }
+
+            @Override
+            public void notImplemented() {
+            }
+        }, "SpillError", "Failed to write PDF data to a temporary file.") {
+            @Override
+            protected Object execute() throws IOException {
+                return DocumentRegistry.getInstance().acquireSpilled(data, getString(params, "password"), context);
+            }
+        });
+    }
+
+    private void load(PDFView.Configurator config, Map<String, Object> params) {
+        loadStarted = true;
+        reserveViewMemory();
+        renderProfile.apply(pdfView);
+        if (metrics != null) {
+            metrics.onLoadStarted();
+            config.onDraw((canvas, pageWidth, pageHeight, displayedPage) -> metrics.onFrameDrawn());
+        }
+        config
+                .onLoad(this::onLoaded)
+                .enableSwipe(getBoolean(params, "enableSwipe"))
+                .swipeHorizontal(getBoolean(params, "swipeHorizontal"))
+                .password(getString(params, "password"))
+                .nightMode(getBoolean(params, "nightMode"))
+                .autoSpacing(getBoolean(params, "autoSpacing"))
+                .pageFling(getBoolean(params, "pageFling"))
+                .pageSnap(getBoolean(params, "pageSnap"))
+                .pageFitPolicy(getFitPolicy(params))
+                .enableAnnotationRendering(true)
+                .linkHandler(linkHandler)
+                .enableAntialiasing(renderProfile.antialiasing)
+                .enableDoubletap(true)
+                .defaultPage(getInt(params, "defaultPage"))
+                .onPageChange((page, total) -> {
+                    Map<String, Object> args = new HashMap<>();
+                    args.put("page", page);
+                    args.put("total", total);
+                    eventCoalescer.post("onPageChanged", args);
+                })
+                .onPageScroll(this::onPageScrolled)
+                .onError(t -> {
+                    Map<String, Object> args = new HashMap<>();
+                    args.put("error", t.toString());
+                    sendEvent("onError", args);
+                }).onPageError((page, t) -> {
+                    Map<String, Object> args = new HashMap<>();
+                    args.put("page", page);
+                    args.put("error", t.toString());
+                    sendEvent("onPageError", args);
+                })
+                .onRender((pages) -> {
+                    if (metrics != null) {
+                        metrics.onRendered();
+                    }
+                    Map<String, Object> args = new HashMap<>();
+                    args.put("pages", pages);
+                    sendEvent("onRender", args);
+                })
+                .onDrawAll(this::onPageDrawn)
+                .load();
+    }
+
+    private void onLoaded(int pages) {
+        if (metrics != null) {
+            metrics.onLoaded();
+        }
+        if (document != null) {
+            document.setPageCount(pages);
+        }
+        if (savedPosition != null) {
+            // کتابخانه پس از onLoad به defaultPage می‌پرد؛ بازگرداندن بعد از آن انجام می‌شود
+            final SavedPosition position = savedPosition;
+            savedPosition = null;
+            pdfView.post(() -> restorePosition(position));
+        }
+    }
+
+    /**
+     * موقعیت نسبی در طول سند (getPositionOffset) با تغییر چیدمان هم معنادار است؛ فاصله در
+     * محور عمود بر اسکرول فقط وقتی بازگردانده می‌شود که جهت اسکرول تغییر نکرده باشد.
+     */
+    private void restorePosition(SavedPosition position) {
+        if (disposed || pdfView.getPageCount() == 0) {
+            return;
+        }
+        pdfView.zoomTo(position.zoom);
+        pdfView.setPositionOffset(position.offset, false);
+        if (pdfView.isSwipeVertical() == position.vertical) {
+            if (position.vertical) {
+                pdfView.moveTo(position.crossOffset, pdfView.getCurrentYOffset());
+            } else {
+                pdfView.moveTo(pdfView.getCurrentXOffset(), position.crossOffset);
+            }
+        }
+        pdfView.loadPages();
+    }
+
+    private static final class SavedPosition {
+        final float zoom;
+        final float offset;
+        final boolean vertical;
+        final float crossOffset;
+
+        SavedPosition(PDFView pdfView) {
+            zoom = pdfView.getZoom();
+            offset = pdfView.getPositionOffset();
+            vertical = pdfView.isSwipeVertical();
+            crossOffset = vertical ? pdfView.getCurrentXOffset() : pdfView.getCurrentYOffset();
+        }
+    }
+
+    /** موقعیت فقط وقتی ساخته و ارسال می‌شود که Dart شنونده onScroll داشته باشد. */
+    private void onPageScrolled(int page, float positionOffset) {
+        if (!positionEvents) {
+            eventCoalescer.touch();
+            return;
         }
+        Map<String, Object> args = new HashMap<>();
+        args.put("x", (double) pdfView.getCurrentXOffset());
+        args.put("y", (double) pdfView.getCurrentYOffset());
+        args.put("page", page);
+        args.put("positionOffset", (double) positionOffset);
+        eventCoalescer.post("onScroll", args);
+    }
 
-        if (config != null) {
-            config
-                    .enableSwipe(getBoolean(params, "enableSwipe"))
-                    .swipeHorizontal(getBoolean(params, "swipeHorizontal"))
-                    .password(getString(params, "password"))
-                    .nightMode(getBoolean(params, "nightMode"))
-                    .autoSpacing(getBoolean(params, "autoSpacing"))
-                    .pageFling(getBoolean(params, "pageFling"))
-                    .pageSnap(getBoolean(params, "pageSnap"))
-                    .pageFitPolicy(getFitPolicy(params))
-                    .enableAnnotationRendering(true)
-                    .linkHandler(linkHandler)
-                    .enableAntialiasing(false)
-                    .enableDoubletap(true)
-                    .defaultPage(getInt(params, "defaultPage"))
-                    .onPageChange((page, total) -> {
-                        Map<String, Object> args = new HashMap<>();
-                        args.put("page", page);
-                        args.put("total", total);
-                        methodChannel.invokeMethod("onPageChanged", args);
-                    })
-                    .onError(t -> {
-                        Map<String, Object> args = new HashMap<>();
-                        args.put("error", t.toString());
-                        methodChannel.invokeMethod("onError", args);
-                    }).onPageError((page, t) -> {
-                        Map<String, Object> args = new HashMap<>();
-                        args.put("page", page);
-                        args.put("error", t.toString());
-                        methodChannel.invokeMethod("onPageError", args);
-                    })
-                    .onRender((pages) -> {
-                        Map<String, Object> args = new HashMap<>();
-                        args.put("pages", pages);
-                        methodChannel.invokeMethod("onRender", args);
-                    })
-                    .load();
+    private void sendEvent(String method, Object arguments) {
+        if (metrics != null) {
+            metrics.onEvent(method);
         }
+        methodChannel.invokeMethod(method, arguments);
+    }
+
+    private void onPageDrawn(Canvas canvas, float pageWidth, float pageHeight, int displayedPage) {
+        drawHighlights(canvas, pageWidth, pageHeight, displayedPage);
+        if (metrics != null) {
+            metrics.onPageDrawn(displayedPage);
+        }
+    }
+
+    /** ارسال دوره‌ای سنجه‌ها با رویداد onMetrics روی کانال همین نمایشگر. */
+    private void startMetricsPush(final long intervalMillis) {
+        metricsPush = new Runnable() {
+            @Override
+            public void run() {
+                methodChannel.invokeMethod("onMetrics", metrics.snapshot());
+                metricsHandler.postDelayed(this, intervalMillis);
+            }
+        };
+        metricsHandler.postDelayed(metricsPush, intervalMillis);
+    }
+
+    private void getMetrics(MethodCall call, Result result) {
+        if (metrics == null) {
+            result.error("MetricsDisabled", "Metrics are not enabled for this view.", null);
+            return;
+        }
+        Map<String, Object> snapshot = metrics.snapshot();
+        snapshot.put("render", renderProfile.toMap());
+        if (Boolean.TRUE.equals(call.argument("reset"))) {
+            metrics.reset();
+        }
+        result.success(snapshot);
     }
 
     @Override
@@ -127,6 +393,9 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
 
     @Override
     public void onMethodCall(MethodCall methodCall, Result result) {
+        if (metrics != null) {
+            result = metrics.timed(methodCall.method, result);
+        }
         switch (methodCall.method) {
             case "pageCount":
                 getPageCount(result);
@@ -144,19 +413,60 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
                 setPosition(methodCall, result);
                 break;
             case "extractImages":
-                extractImagesInOrder(result);
+                extractImagesInOrder(methodCall, result);
                 break;
             case "updateSettings":
                 updateSettings(methodCall, result);
                 break;
+            case "setHighlights":
+                setHighlights(methodCall, result);
+                break;
+            case "getMetrics":
+                getMetrics(methodCall, result);
+                break;
+            case "getPageSizes":
+                getPageSizes(result);
+                break;
+            case "appendData":
+                appendData(methodCall, result);
+                break;
+            case "finishData":
+                finishData(methodCall, result);
+                break;
             default:
                 result.notImplemented();
                 break;
         }
     }
 
+    /** پیش از پایان بارگذاری این نمایشگر، تعداد صفحات از نمایشگر دیگر همین سند خوانده می‌شود. */
     void getPageCount(Result result) {
-        result.success(pdfView.getPageCount());
+        int pages = pdfView.getPageCount();
+        if (pages == 0 && document != null && document.getPageCount() > 0) {
+            pages = document.getPageCount();
+        }
+        result.success(pages);
+    }
+
+    /** ابعاد اصلی صفحات؛ برای اسناد ثبت‌شده یک بار خوانده و بین نمایشگرها مشترک است. */
+    void getPageSizes(Result result) {
+        final DocumentRegistry.Handle handle = document;
+        final PdfSource source = handle != null ? handle.getSource()
+                : PdfSource.of(filePath, pdfData, getString(loadParams, "password"));
+        if (source == null) {
+            result.error("NoSource", "PDF source not available.", null);
+            return;
+        }
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, 0, result,
+                "PageSizeError", "Failed to read page sizes.") {
+            @Override
+            protected Object execute() throws IOException {
+                if (handle != null) {
+                    return handle.getPageSizes();
+                }
+                return DocumentRegistry.readPageSizes(source);
+            }
+        });
     }
 
     void getCurrentPage(Result result) {
@@ -187,8 +497,59 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
         result.success(true);
     }
     
-    private void extractImagesInOrder(final Result result) {
-        extractImagesInternal(this.filePath, this.pdfData, this.context, result);
+    /**
+     * کادرهای نتایج جست‌وجوی متن را روی صفحات برجسته می‌کند. کادرها بر حسب نقطه PDF
+     * همراه با ابعاد صفحه داده می‌شوند و به نسبت ابعاد صفحه نگه داشته می‌شوند تا با بزرگ‌نمایی تغییر کنند.
+     */
+    @SuppressWarnings("unchecked")
+    private void setHighlights(MethodCall call, Result result) {
+        highlights.clear();
+        List<Map<String, Object>> hits = call.argument("highlights");
+        if (hits != null) {
+            for (Map<String, Object> hit : hits) {
+                int page = ((Number) hit.get("page")).intValue();
+                float pageWidth = ((Number) hit.get("pageWidth")).floatValue();
+                float pageHeight = ((Number) hit.get("pageHeight")).floatValue();
+                List<RectF> rects = highlights.get(page);
+                if (rects == null) {
+                    rects = new ArrayList<>();
+                    highlights.put(page, rects);
+                }
+                for (Map<String, Object> box : (List<Map<String, Object>>) hit.get("boxes")) {
+                    rects.add(new RectF(
+                            ((Number) box.get("left")).floatValue() / pageWidth,
+                            ((Number) box.get("top")).floatValue() / pageHeight,
+                            ((Number) box.get("right")).floatValue() / pageWidth,
+                            ((Number) box.get("bottom")).floatValue() / pageHeight));
+                }
+            }
+        }
+        Number color = call.argument("color");
+        highlightPaint.setColor(color != null ? color.intValue() : DEFAULT_HIGHLIGHT_COLOR);
+        pdfView.invalidate();
+        result.success(null);
+    }
+
+    private void drawHighlights(Canvas canvas, float pageWidth, float pageHeight, int displayedPage) {
+        List<RectF> rects = highlights.get(displayedPage);
+        if (rects == null) {
+            return;
+        }
+        for (RectF rect : rects) {
+            canvas.drawRect(rect.left * pageWidth, rect.top * pageHeight,
+                    rect.right * pageWidth, rect.bottom * pageHeight, highlightPaint);
+        }
+    }
+
+    private void extractImagesInOrder(MethodCall call, final Result result) {
+        extractImagesInternal(this.filePath, this.pdfData, getString(loadParams, "password"), this.context,
+                call.argument("requestId"), 0, ToolOutput.from(call, this.context),
+                getDecodeEncoding(call), result);
+    }
+
+    static ImageEncoding getDecodeEncoding(MethodCall call) {
+        Boolean decode = call.argument("decode");
+        return decode != null && decode ? ImageEncoding.from(call, "png") : null;
     }
 
     /**
@@ -196,35 +557,46 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
      * این متد منطق اصلی را در خود جای داده و هم توسط نمونه ویجت و هم توسط کانال استاتیک پلاگین استفاده می‌شود.
      */
     public static void extractImagesInternal(final String filePath, final byte[] pdfData, Context context, final Result result) {
-        new Thread(() -> {
-            final Handler handler = new Handler(Looper.getMainLooper());
-            try {
-                // اطمینان از اینکه PDFBox مقداردهی اولیه شده است
-                PDFBoxResourceLoader.init(context.getApplicationContext());
-                
-                PDDocument document;
-                if (filePath != null) {
-                    document = PDDocument.load(new File(filePath));
-                } else if (pdfData != null) {
-                    document = PDDocument.load(pdfData);
-                } else {
-                    handler.post(() -> result.error("NoSource", "PDF source not available.", null));
-                    return;
-                }
+        extractImagesInternal(filePath, pdfData, null, context, null, 0, ToolOutput.BASE64, null, result);
+    }
 
-                final List<Map<String, String>> imagesData = new ArrayList<>();
-                ImageExtractor extractor = new ImageExtractor(imagesData);
+    /**
+     * مانند متد بالا، با شناسه درخواست برای لغو، اولویت در صف کاری مشترک و شکل خروجی داده‌ها.
+     * اگر decode داده شود تصاویر رمزگشایی و با همان قالب دوباره فشرده می‌شوند.
+     * password برای اسناد رمزگذاری‌شده است.
+     */
+    public static void extractImagesInternal(final String filePath, final byte[] pdfData, String password, Context context,
+                                             String requestId, int priority, final ToolOutput output,
+                                             final ImageEncoding decode, final Result result) {
+        // اطمینان از اینکه PDFBox مقداردهی اولیه شده است
+        PDFBoxResourceLoader.init(context.getApplicationContext());
+
+        final PdfSource source = PdfSource.of(filePath, pdfData, password);
+        if (source == null) {
+            result.error("NoSource", "PDF source not available.", null);
+            return;
+        }
 
-                for (PDPage page : document.getPages()) {
-                    extractor.processPage(page);
+        WorkerPool.getInstance().submit(new WorkerPool.Job(requestId, priority, result,
+                "ExtractionError", "Failed to extract images.") {
+            @Override
+            protected Object execute() throws IOException {
+                final List<Map<String, Object>> imagesData = new ArrayList<>();
+                ImageExtractor extractor = new ImageExtractor(imagesData, output, 0, decode);
+
+                try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+                    PDDocument document = lease.getDocument();
+                    int pageIndex = 0;
+                    for (PDPage page : document.getPages()) {
+                        checkCancelled();
+                        synchronized (document) {
+                            extractor.processPage(pageIndex++, page);
+                        }
+                    }
                 }
-                document.close();
-
-                handler.post(() -> result.success(imagesData));
-            } catch (IOException e) {
-                handler.post(() -> result.error("ExtractionError", "Failed to extract images.", e.toString()));
+                return imagesData;
             }
-        }).start();
+        });
     }
 
 
@@ -234,33 +606,195 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
         result.success(null);
     }
 
+    /**
+     * تنظیمات ساده روی نمایشگر اعمال می‌شوند. تنظیمات چیدمان (جهت اسکرول، سیاست جا شدن،
+     * فاصله صفحات) و رمز در PdfFile کتابخانه هنگام بارگذاری ثابت می‌شوند، پس سند از همان
+     * منبع آماده (فایل، فایل موقت یا بایت‌ها) دوباره بارگذاری و صفحه، بزرگ‌نمایی و موقعیت
+     * پیشین بازگردانده می‌شوند؛
+     * اگر بارگذاری هنوز آغاز نشده باشد فقط تنظیمات ثبت می‌شوند.
+     */
     private void applySettings(Map<String, Object> settings) {
+        boolean reload = false;
+        boolean renderChanged = false;
         for (String key : settings.keySet()) {
             switch (key) {
+                case "renderProfile":
+                case "bestQuality":
+                case "antialiasing":
+                case "cacheSize":
+                case "partSize":
+                case "preloadOffset":
+                    loadParams.put(key, settings.get(key));
+                    renderChanged = true;
+                    break;
+                case "swipeHorizontal":
+                case "fitPolicy":
+                case "autoSpacing":
+                case "password":
+                    if (!Objects.equals(loadParams.get(key), settings.get(key))) {
+                        loadParams.put(key, settings.get(key));
+                        reload = true;
+                        if ("password".equals(key)) {
+                            updateDocumentPassword();
+                        }
+                    }
+                    break;
+                case "backgroundColor":
+                    Object color = settings.get(key);
+                    if (color != null) {
+                        pdfView.setBackgroundColor(((Number) color).intValue());
+                    } else {
+                        pdfView.setBackground(null);
+                    }
+                    loadParams.put(key, color);
+                    break;
                 case "enableSwipe":
                     pdfView.setSwipeEnabled(getBoolean(settings, key));
+                    loadParams.put(key, settings.get(key));
                     break;
                 case "nightMode":
                     pdfView.setNightMode(getBoolean(settings, key));
+                    loadParams.put(key, settings.get(key));
+                    pdfView.invalidate();
                     break;
                 case "pageFling":
                     pdfView.setPageFling(getBoolean(settings, key));
+                    loadParams.put(key, settings.get(key));
                     break;
                 case "pageSnap":
                     pdfView.setPageSnap(getBoolean(settings, key));
+                    loadParams.put(key, settings.get(key));
                     break;
                 case "preventLinkNavigation":
                     ((PDFLinkHandler) this.linkHandler).setPreventLinkNavigation(getBoolean(settings, key));
                     break;
+                case "onScroll":
+                    positionEvents = getBoolean(settings, key);
+                    break;
+                case "eventMode":
+                    eventMode = getString(settings, key);
+                    resetEventCoalescer();
+                    break;
+                case "eventInterval":
+                    eventInterval = getLong(settings, key);
+                    resetEventCoalescer();
+                    break;
                 default:
                     break;
             }
         }
+        if (renderChanged) {
+            // کیفیت و کش در رندرهای بعدی اثر دارند؛ فاصله پیش‌بارگذاری فقط با بارگذاری دوباره
+            RenderProfile previous = renderProfile;
+            renderProfile = RenderProfile.from(loadParams);
+            if (loadStarted) {
+                reserveViewMemory();
+            }
+            renderProfile.apply(pdfView);
+            reload |= previous.preloadOffset != renderProfile.preloadOffset;
+            pdfView.invalidate();
+        }
+        if (reload && loadStarted && !disposed) {
+            reload();
+        }
+    }
+
+    /**
+     * سهم کش بخش‌ها را از بودجه حافظه رزرو می‌کند. نمایشگر نمی‌تواند منتظر بماند، پس اگر جا
+     * نباشد به پروفایل کم‌حافظه برمی‌گردد و مصرف آن در هر حال ثبت می‌شود.
+     */
+    private void reserveViewMemory() {
+        if (viewReservation != null) {
+            viewReservation.close();
+        }
+        MemoryBudget budget = MemoryBudget.getInstance();
+        viewReservation = budget.tryReserve(MemoryBudget.VIEWS, renderProfile.estimateBytes());
+        if (viewReservation == null) {
+            RenderProfile fallback = RenderProfile.named(RenderProfile.LOW_MEMORY);
+            if (fallback.estimateBytes() < renderProfile.estimateBytes()) {
+                renderProfile = fallback;
+                budget.recordDegraded(MemoryBudget.VIEWS);
+            }
+            viewReservation = budget.reserveAnyway(MemoryBudget.VIEWS, renderProfile.estimateBytes());
+        }
+    }
+
+    /** ابزارها و ابعاد صفحات از ارجاع سند می‌خوانند، پس ارجاع با رمز تازه گرفته می‌شود. */
+    private void updateDocumentPassword() {
+        if (document == null) {
+            return;
+        }
+        DocumentRegistry.Handle previous = document;
+        document = DocumentRegistry.getInstance().withPassword(previous, getString(loadParams, "password"));
+        previous.release();
+    }
+
+    private void reload() {
+        loadParams.put("defaultPage", pdfView.getCurrentPage());
+        if (pdfView.getPageCount() > 0) {
+            savedPosition = new SavedPosition(pdfView);
+        }
+        if (filePath != null) {
+            load(pdfView.fromUri(getURI(filePath)), loadParams);
+        } else if (pdfData != null) {
+            load(pdfView.fromBytes(pdfData), loadParams);
+        }
+    }
+
+    /**
+     * کش بخش‌های رندرشده همه نمایشگرها را آزاد می‌کند؛ فقط صفحات قابل مشاهده دوباره
+     * رندر می‌شوند و کش تا اندازه همان صفحات کوچک می‌ماند. روی نخ اصلی فراخوانی شود.
+     */
+    static void trimRenderCaches() {
+        for (FlutterPDFView view : liveViews) {
+            if (RenderCache.recycle(view.pdfView)) {
+                view.pdfView.loadPages();
+            }
+        }
     }
 
     @Override
     public void dispose() {
+        disposed = true;
+        liveViews.remove(this);
+        if (metricsPush != null) {
+            metricsHandler.removeCallbacks(metricsPush);
+            metricsPush = null;
+        }
+        eventCoalescer.dispose(false);
         methodChannel.setMethodCallHandler(null);
+        highlights.clear();
+        // سند Pdfium و بیت‌مپ‌های صفحات بی‌درنگ آزاد می‌شوند و تا finalization نمی‌مانند
+        pdfView.recycle();
+        if (viewReservation != null) {
+            viewReservation.close();
+            viewReservation = null;
+        }
+        if (document != null) {
+            document.release();
+            document = null;
+        }
+        if (pdfData != null) {
+            // سندی که از حافظه نمایش داده شد با کلید هش محتوا در کش ابزارها است؛ هش روی صف کاری
+            final PdfSource source = PdfSource.of(null, pdfData, getString(loadParams, "password"));
+            WorkerPool.getInstance().post(() -> DocumentCache.getInstance().remove(source));
+            pdfData = null;
+        }
+        if (streaming != null) {
+            // سند دریافت‌شده با ارجاع document از کش خارج شده است
+            streaming.delete();
+            streaming = null;
+        }
+    }
+
+    private void resetEventCoalescer() {
+        eventCoalescer.dispose(true);
+        eventCoalescer = new EventCoalescer(eventMode, eventInterval, this::sendEvent);
+    }
+
+    private Long getLong(Map<String, Object> params, String key) {
+        Object value = params.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : null;
     }
 
     private boolean getBoolean(Map<String, Object> params, String key) {
@@ -296,46 +830,3 @@ public class FlutterPDFView implements PlatformView, MethodCallHandler {
         return parsed;
     }
 }
-
-class ImageExtractor extends PDFStreamEngine {
-    private final List<Map<String, String>> imagesData;
-    private final List<String> processedImageHashes = new ArrayList<>();
-    ImageExtractor(List<Map<String, String>> imagesData) {
-        this.imagesData = imagesData;
-    }
-
-    @Override
-    protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
-        String operation = operator.getName();
-        if ("Do".equals(operation)) {
-            COSName objectName = (COSName) operands.get(0);
-            PDXObject xobject = getResources().getXObject(objectName);
-
-            if (xobject instanceof PDImageXObject) {
-                PDImageXObject image = (PDImageXObject) xobject;
-                
-                InputStream rawBytesStream = image.getStream().createInputStream();
-                byte[] imageBytes = IOUtils.toByteArray(rawBytesStream);
-                rawBytesStream.close();
-                
-                String imageHash = Base64.encodeToString(imageBytes, Base64.NO_WRAP);
-                if (processedImageHashes.contains(imageHash)) {
-                    return;
-                }
-                processedImageHashes.add(imageHash);
-                
-                String format = image.getSuffix();
-                if (format == null) {
-                    format = "jpg";
-                }
-
-                Map<String, String> imageData = new HashMap<>();
-                imageData.put("format", format);
-                imageData.put("data", imageHash);
-                imagesData.add(imageData);
-            }
-        } else {
-            super.processOperator(operator, operands);
-        }
-    }
-}
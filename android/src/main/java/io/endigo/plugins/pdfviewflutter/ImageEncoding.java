@@ -0,0 +1,92 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.graphics.Bitmap;
+import android.os.Build;
+
+import java.io.ByteArrayOutputStream;
+
+import io.flutter.plugin.common.MethodCall;
+
+/**
+ * قالب و کیفیت فشرده‌سازی تصاویری که در خود پلاگین رمزگشایی یا رندر می‌شوند،
+ * همراه با سقف اختیاری بزرگ‌ترین بعد تصویر.
+ */
+final class ImageEncoding {
+    final Bitmap.CompressFormat format;
+    final String extension;
+    final int quality;
+    final int maxDimension;
+
+    private ImageEncoding(Bitmap.CompressFormat format, String extension, int quality, int maxDimension) {
+        this.format = format;
+        this.extension = extension;
+        this.quality = quality;
+        this.maxDimension = maxDimension;
+    }
+
+    /** آرگومان‌های format (png، jpeg، webp)، quality و maxDimension را می‌خواند. */
+    static ImageEncoding from(MethodCall call, String defaultFormat) {
+        String format = call.argument("format");
+        Integer quality = call.argument("quality");
+        Integer maxDimension = call.argument("maxDimension");
+        return of(format != null ? format : defaultFormat,
+                quality != null ? quality : 90,
+                maxDimension != null ? maxDimension : 0);
+    }
+
+    static ImageEncoding of(String format, int quality, int maxDimension) {
+        int clampedQuality = Math.max(0, Math.min(100, quality));
+        switch (format) {
+            case "jpeg":
+            case "jpg":
+                return new ImageEncoding(Bitmap.CompressFormat.JPEG, "jpg", clampedQuality, maxDimension);
+            case "webp":
+                return new ImageEncoding(webpFormat(), "webp", clampedQuality, maxDimension);
+            case "png":
+            default:
+                return new ImageEncoding(Bitmap.CompressFormat.PNG, "png", clampedQuality, maxDimension);
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return Bitmap.CompressFormat.WEBP_LOSSY;
+        }
+        return Bitmap.CompressFormat.WEBP;
+    }
+
+    /**
+     * ضریب نمونه‌برداری برای رمزگشایی مستقیم در اندازه کوچک‌تر؛ نتیجه هنوز حداقل
+     * به اندازه maxDimension است تا کیفیت پس از مقیاس‌دهی نهایی حفظ شود.
+     */
+    int subsampling(int width, int height) {
+        int largest = Math.max(width, height);
+        if (maxDimension <= 0 || largest <= maxDimension) {
+            return 1;
+        }
+        return Math.max(1, largest / maxDimension);
+    }
+
+    /** اگر تصویر هنوز از maxDimension بزرگ‌تر باشد آن را کوچک می‌کند؛ بیت‌مپ ورودی بازیافت می‌شود. */
+    Bitmap fit(Bitmap bitmap) {
+        int largest = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (maxDimension <= 0 || largest <= maxDimension) {
+            return bitmap;
+        }
+        float scale = (float) maxDimension / largest;
+        Bitmap scaled = Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)), true);
+        if (scaled != bitmap) {
+            bitmap.recycle();
+        }
+        return scaled;
+    }
+
+    byte[] encode(Bitmap bitmap) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bitmap.compress(format, quality, stream);
+        return stream.toByteArray();
+    }
+}
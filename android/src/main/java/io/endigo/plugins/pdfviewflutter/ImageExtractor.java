@@ -0,0 +1,207 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.graphics.Bitmap;
+
+import com.tom_roush.pdfbox.contentstream.PDFStreamEngine;
+import com.tom_roush.pdfbox.contentstream.operator.Operator;
+import com.tom_roush.pdfbox.cos.COSBase;
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.cos.COSStream;
+import com.tom_roush.pdfbox.io.IOUtils;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.graphics.PDXObject;
+import com.tom_roush.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * تصاویر صفحات را استخراج می‌کند. هر تصویر یکتا فقط یک بار گزارش می‌شود: ابتدا با ارجاع
+ * شیء COS و سپس با هش SHA-256 جریان خام، و فهرست صفحاتی که از آن استفاده کرده‌اند
+ * (مثل لوگو و سربرگ تکراری) در فیلد pages نگه داشته می‌شود.
+ */
+class ImageExtractor extends PDFStreamEngine {
+    private final List<Map<String, Object>> imagesData;
+    private final ToolOutput output;
+    private final Map<COSStream, ImageRef> imagesByObject = new IdentityHashMap<>();
+    private final Map<String, ImageRef> imagesByDigest = new HashMap<>();
+    private final List<ImageRef> imageRefs = new ArrayList<>();
+    private final List<Integer> reusedOnPage = new ArrayList<>();
+    private final int maxImages;
+    private final ImageEncoding decode;
+    private int imageCount;
+    private int pageIndex;
+
+    private static final class ImageRef {
+        final int id;
+        final List<Integer> pages = new ArrayList<>();
+
+        ImageRef(int id) {
+            this.id = id;
+        }
+    }
+
+    ImageExtractor(List<Map<String, Object>> imagesData, ToolOutput output) {
+        this(imagesData, output, 0, null);
+    }
+
+    /**
+     * maxImages صفر یا منفی یعنی بدون محدودیت. اگر decode null باشد بایت‌های جریان تصویر
+     * همان‌طور که هست برگردانده می‌شوند؛ در غیر این صورت تصویر از طریق PDImageXObject
+     * رمزگشایی (در صورت نیاز با نمونه‌برداری کاهشی) و با قالب خواسته‌شده فشرده می‌شود.
+     */
+    ImageExtractor(List<Map<String, Object>> imagesData, ToolOutput output, int maxImages, ImageEncoding decode) {
+        this.imagesData = imagesData;
+        this.output = output;
+        this.maxImages = maxImages;
+        this.decode = decode;
+    }
+
+    void processPage(int pageIndex, PDPage page) throws IOException {
+        this.pageIndex = pageIndex;
+        reusedOnPage.clear();
+        processPage(page);
+    }
+
+    boolean isFull() {
+        return maxImages > 0 && imageCount >= maxImages;
+    }
+
+    int getImageCount() {
+        return imageCount;
+    }
+
+    /** شناسه تصاویری که پیش‌تر در صفحات قبلی گزارش شده‌اند و در صفحه جاری دوباره آمده‌اند. */
+    List<Integer> getReusedOnPage() {
+        return new ArrayList<>(reusedOnPage);
+    }
+
+    /** نگاشت شناسه هر تصویر یکتا به صفحاتی که از آن استفاده کرده‌اند. */
+    Map<Integer, List<Integer>> getUsages() {
+        Map<Integer, List<Integer>> usages = new HashMap<>();
+        for (ImageRef ref : imageRefs) {
+            usages.put(ref.id, new ArrayList<>(ref.pages));
+        }
+        return usages;
+    }
+
+    @Override
+    protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+        String operation = operator.getName();
+        if ("Do".equals(operation)) {
+            COSName objectName = (COSName) operands.get(0);
+            PDXObject xobject = getResources().getXObject(objectName);
+
+            if (xobject instanceof PDImageXObject) {
+                PDImageXObject image = (PDImageXObject) xobject;
+                COSStream imageStream = image.getCOSObject();
+
+                ImageRef ref = imagesByObject.get(imageStream);
+                String digest = null;
+                if (ref == null) {
+                    digest = digest(imageStream);
+                    ref = imagesByDigest.get(digest);
+                    if (ref != null) {
+                        imagesByObject.put(imageStream, ref);
+                    }
+                }
+                if (ref != null) {
+                    addUsage(ref);
+                    return;
+                }
+                if (isFull()) {
+                    return;
+                }
+
+                ref = new ImageRef(imageCount);
+                imagesByObject.put(imageStream, ref);
+                imagesByDigest.put(digest, ref);
+                imageRefs.add(ref);
+                addUsage(ref);
+
+                Map<String, Object> imageData = new HashMap<>();
+                imageData.put("id", ref.id);
+                imageData.put("pages", ref.pages);
+                if (decode == null || !putDecoded(image, imageData)) {
+                    putRaw(image, imageData);
+                }
+                imagesData.add(imageData);
+                imageCount++;
+            }
+        } else {
+            super.processOperator(operator, operands);
+        }
+    }
+
+    private void putRaw(PDImageXObject image, Map<String, Object> imageData) throws IOException {
+        InputStream rawBytesStream = image.getStream().createInputStream();
+        byte[] imageBytes = IOUtils.toByteArray(rawBytesStream);
+        rawBytesStream.close();
+
+        String format = image.getSuffix();
+        if (format == null) {
+            format = "jpg";
+        }
+        imageData.put("format", format);
+        output.put(imageData, imageBytes, format);
+    }
+
+    /**
+     * اگر رمزگشایی ممکن نباشد (مثلاً فیلتر پشتیبانی‌نشده) false برمی‌گرداند تا داده خام ارسال شود.
+     */
+    private boolean putDecoded(PDImageXObject image, Map<String, Object> imageData) throws IOException {
+        Bitmap bitmap;
+        try {
+            bitmap = image.getImage(null, decode.subsampling(image.getWidth(), image.getHeight()));
+        } catch (IOException | RuntimeException e) {
+            imageData.put("decodeError", e.toString());
+            return false;
+        }
+        if (bitmap == null) {
+            return false;
+        }
+        bitmap = decode.fit(bitmap);
+        byte[] encoded = decode.encode(bitmap);
+        imageData.put("format", decode.extension);
+        imageData.put("width", bitmap.getWidth());
+        imageData.put("height", bitmap.getHeight());
+        bitmap.recycle();
+        output.put(imageData, encoded, decode.extension);
+        return true;
+    }
+
+    private void addUsage(ImageRef ref) {
+        if (!ref.pages.isEmpty() && ref.pages.get(ref.pages.size() - 1) == pageIndex) {
+            return;
+        }
+        if (!ref.pages.isEmpty()) {
+            reusedOnPage.add(ref.id);
+        }
+        ref.pages.add(pageIndex);
+    }
+
+    /** هش جریان خام (بدون رمزگشایی فیلترها) به صورت تکه‌تکه محاسبه می‌شود. */
+    private static String digest(COSStream stream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream input = stream.createRawInputStream()) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return PdfSource.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,134 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * بودجه مشترک حافظه پلاگین. نمایشگرها (برآورد بیت‌مپ‌های کش بخش‌ها)، اسناد PDFBox و
+ * بیت‌مپ‌های تصاویر بندانگشتی پیش از تخصیص، سهم خود را رزرو می‌کنند. مصرف‌کننده‌ای که جا
+ * نداشته باشد به جای خطای کمبود حافظه کیفیت را پایین می‌آورد (پروفایل کم‌حافظه، بارگذاری
+ * سند با فایل موقت، تصویر با ابعاد کمتر). هیچ رزروی منتظر نمی‌ماند، چون رزروکنندگان قفل
+ * سند یا سهم دیگری را در اختیار دارند. مقادیر برآوردی‌اند و جای محدودیت‌های خود کش‌ها را نمی‌گیرند.
+ */
+final class MemoryBudget {
+    static final String VIEWS = "views";
+    static final String DOCUMENTS = "documents";
+    static final String THUMBNAILS = "thumbnails";
+
+    // پیش‌فرض: یک چهارم heap قابل استفاده فرایند
+    static final long DEFAULT_FRACTION = 4;
+
+    private static MemoryBudget instance;
+
+    private long maxBytes = Runtime.getRuntime().maxMemory() / DEFAULT_FRACTION;
+    private long usedBytes;
+    private final Map<String, Usage> usages = new LinkedHashMap<>();
+
+    static synchronized MemoryBudget getInstance() {
+        if (instance == null) {
+            instance = new MemoryBudget();
+        }
+        return instance;
+    }
+
+    /** شمارنده‌های یک مصرف‌کننده. */
+    private static final class Usage {
+        long bytes;
+        long peakBytes;
+        long reservations;
+        long degraded;
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("bytes", bytes);
+            map.put("peakBytes", peakBytes);
+            map.put("reservations", reservations);
+            map.put("degraded", degraded);
+            return map;
+        }
+    }
+
+    /** سهم رزروشده؛ با close (یک بار) به بودجه برمی‌گردد. */
+    final class Reservation implements Closeable {
+        final String consumer;
+        final long bytes;
+        private boolean closed;
+
+        private Reservation(String consumer, long bytes) {
+            this.consumer = consumer;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void close() {
+            synchronized (MemoryBudget.this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                usedBytes -= bytes;
+                usage(consumer).bytes -= bytes;
+            }
+        }
+    }
+
+    /** اگر بودجه کافی باشد رزرو می‌کند و در غیر این صورت null برمی‌گرداند. */
+    synchronized Reservation tryReserve(String consumer, long bytes) {
+        if (usedBytes + bytes > maxBytes) {
+            return null;
+        }
+        return add(consumer, bytes);
+    }
+
+    /**
+     * پس از پایین آوردن کیفیت، بدون توجه به بودجه رزرو می‌کند تا مصرف گزارش شود و سایر
+     * مصرف‌کنندگان آن را ببینند.
+     */
+    synchronized Reservation reserveAnyway(String consumer, long bytes) {
+        return add(consumer, bytes);
+    }
+
+    synchronized void recordDegraded(String consumer) {
+        usage(consumer).degraded++;
+    }
+
+    synchronized long available() {
+        return Math.max(0, maxBytes - usedBytes);
+    }
+
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    synchronized Map<String, Object> getStats() {
+        Map<String, Object> consumers = new HashMap<>();
+        for (Map.Entry<String, Usage> entry : usages.entrySet()) {
+            consumers.put(entry.getKey(), entry.getValue().toMap());
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxBytes", maxBytes);
+        stats.put("usedBytes", usedBytes);
+        stats.put("consumers", consumers);
+        return stats;
+    }
+
+    private Reservation add(String consumer, long bytes) {
+        usedBytes += bytes;
+        Usage usage = usage(consumer);
+        usage.bytes += bytes;
+        usage.peakBytes = Math.max(usage.peakBytes, usage.bytes);
+        usage.reservations++;
+        return new Reservation(consumer, bytes);
+    }
+
+    private Usage usage(String consumer) {
+        Usage usage = usages.get(consumer);
+        if (usage == null) {
+            usage = new Usage();
+            usages.put(consumer, usage);
+        }
+        return usage;
+    }
+}
@@ -0,0 +1,90 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Debug;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * واکنش به فشار حافظه سیستم: کش‌های پلاگین بر اساس سطح onTrimMemory مرحله به مرحله
+ * کوچک می‌شوند. در سطوح سبک فقط مخزن بیت‌مپ‌ها، از RUNNING_LOW به بالا کش رندر
+ * نمایشگرها، بیشتر اسناد باز و نمایه‌های متن حافظه و در سطوح بحرانی همه کش‌های حافظه
+ * آزاد می‌شوند. کش رندر روی نخ اصلی و بستن اسناد روی صف کاری انجام می‌شود.
+ * کش تصاویر بندانگشتی روی دیسک است و دست نمی‌خورد.
+ */
+final class MemoryTrimmer implements ComponentCallbacks2 {
+    private final Context context;
+    private int lastTrimLevel = -1;
+    private long trims;
+
+    MemoryTrimmer(Context context) {
+        this.context = context;
+    }
+
+    @Override
+    public void onTrimMemory(final int level) {
+        synchronized (this) {
+            lastTrimLevel = level;
+            trims++;
+        }
+        if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            FlutterPDFView.trimRenderCaches();
+        }
+        WorkerPool.getInstance().post(() -> trim(level));
+    }
+
+    private void trim(int level) {
+        if (level >= TRIM_MEMORY_MODERATE || level == TRIM_MEMORY_RUNNING_CRITICAL) {
+            release();
+        } else if (level >= TRIM_MEMORY_BACKGROUND || level == TRIM_MEMORY_RUNNING_LOW) {
+            // فقط آخرین سند باز می‌ماند تا بازگشت به همان سند دوباره تجزیه نشود
+            BitmapPool.getInstance().clear();
+            DocumentCache.getInstance().trimTo(1, DocumentCache.DEFAULT_MAX_BYTES / 2);
+            TextIndexer.getInstance(context).clear(null, false);
+        } else {
+            BitmapPool.getInstance().trimTo(0);
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration configuration) {
+    }
+
+    /** همه کش‌های حافظه پلاگین را آزاد می‌کند؛ اسناد در حال استفاده پس از پایان کار بسته می‌شوند. */
+    void release() {
+        BitmapPool.getInstance().clear();
+        DocumentCache.getInstance().clear();
+        TextIndexer.getInstance(context).clear(null, false);
+        DocumentInfoReader.getInstance().clear();
+    }
+
+    /** مصرف حافظه فرایند و کش‌های پلاگین. */
+    Map<String, Object> getInfo() {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> info = new HashMap<>();
+        info.put("javaHeapBytes", runtime.totalMemory() - runtime.freeMemory());
+        info.put("javaHeapMaxBytes", runtime.maxMemory());
+        info.put("nativeHeapBytes", Debug.getNativeHeapAllocatedSize());
+        info.put("budget", MemoryBudget.getInstance().getStats());
+        info.put("views", DocumentRegistry.getInstance().getStats());
+        info.put("documentCache", DocumentCache.getInstance().getStats());
+        info.put("bitmapPool", BitmapPool.getInstance().getStats());
+        info.put("textIndexes", TextIndexer.getInstance(context).getIndexCount());
+        info.put("thumbnailCache", ThumbnailDiskCache.getInstance(context).getStats());
+        synchronized (this) {
+            info.put("lastTrimLevel", lastTrimLevel >= 0 ? lastTrimLevel : null);
+            info.put("trims", trims);
+        }
+        return info;
+    }
+}
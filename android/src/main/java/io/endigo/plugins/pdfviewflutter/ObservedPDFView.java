@@ -0,0 +1,34 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+
+import com.github.barteksc.pdfviewer.PDFView;
+import com.github.barteksc.pdfviewer.model.PagePart;
+
+/**
+ * نمایشگری که رسیدن هر بخش رندرشده را گزارش می‌کند؛ کتابخانه برای آن شنونده‌ای ندارد و
+ * سنجه‌ها بدون آن باید در هر فریم کل کش را پیمایش کنند.
+ */
+final class ObservedPDFView extends PDFView {
+    interface PartListener {
+        void onPartRendered(PagePart part);
+    }
+
+    private PartListener partListener;
+
+    ObservedPDFView(Context context) {
+        super(context, null);
+    }
+
+    void setPartListener(PartListener partListener) {
+        this.partListener = partListener;
+    }
+
+    @Override
+    public void onBitmapRendered(PagePart part) {
+        super.onBitmapRendered(part);
+        if (partListener != null) {
+            partListener.onPartRendered(part);
+        }
+    }
+}
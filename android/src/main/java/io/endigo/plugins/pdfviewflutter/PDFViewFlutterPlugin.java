@@ -1,25 +1,21 @@
 package io.endigo.plugins.pdfviewflutter;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Base64;
 
 import androidx.annotation.NonNull;
 
+import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
 import com.tom_roush.pdfbox.pdmodel.PDDocument;
-import com.tom_roush.pdfbox.rendering.ImageType; // <-- وارد کردن کلاس صحیح
-import com.tom_roush.pdfbox.rendering.PDFRenderer;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 
 import io.flutter.embedding.engine.plugins.FlutterPlugin;
+import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.MethodCall;
 import io.flutter.plugin.common.MethodChannel;
 import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
@@ -27,7 +23,12 @@ import io.flutter.plugin.common.MethodChannel.Result;
 
 public class PDFViewFlutterPlugin implements FlutterPlugin, MethodCallHandler {
     private MethodChannel channel;
+    private EventChannel eventChannel;
+    private final ToolEvents events = new ToolEvents();
     private Context context;
+    private MemoryTrimmer memoryTrimmer;
+    // صف کاری و کش‌ها بین همه موتورها مشترک‌اند و فقط با جدا شدن آخرین موتور آزاد می‌شوند
+    private static int attachedEngines;
 
     @Override
     public void onAttachedToEngine(@NonNull FlutterPluginBinding binding) {
@@ -39,7 +40,19 @@ public class PDFViewFlutterPlugin implements FlutterPlugin, MethodCallHandler {
         // کانال متد برای ابزارهای استاتیک
         channel = new MethodChannel(binding.getBinaryMessenger(), "plugins.endigo.io/pdfview_tools");
         context = binding.getApplicationContext();
+        PDFBoxResourceLoader.init(context);
         channel.setMethodCallHandler(this);
+        synchronized (PDFViewFlutterPlugin.class) {
+            attachedEngines++;
+        }
+
+        // کوچک کردن کش‌ها هنگام فشار حافظه سیستم
+        memoryTrimmer = new MemoryTrimmer(context);
+        context.registerComponentCallbacks(memoryTrimmer);
+
+        // جریان رویداد برای نتایج تدریجی کارهای طولانی
+        eventChannel = new EventChannel(binding.getBinaryMessenger(), "plugins.endigo.io/pdfview_tools/events");
+        eventChannel.setStreamHandler(events);
     }
 
     @Override
@@ -48,9 +61,63 @@ public class PDFViewFlutterPlugin implements FlutterPlugin, MethodCallHandler {
             case "extractImages":
                 extractImages(call, result);
                 break;
+            case "extractImagesStream":
+                extractImagesStream(call, result);
+                break;
             case "generateThumbnail":
                 generateThumbnail(call, result);
                 break;
+            case "generateThumbnails":
+                generateThumbnails(call, result);
+                break;
+            case "cancel":
+                cancel(call, result);
+                break;
+            case "getCacheStats":
+                getCacheStats(result);
+                break;
+            case "configureCache":
+                DocumentCache.getInstance().configure(call.argument("maxDocuments"), call.argument("maxBytes"));
+                result.success(null);
+                break;
+            case "clearCache":
+                DocumentCache.getInstance().clear();
+                BitmapPool.getInstance().clear();
+                result.success(null);
+                break;
+            case "getThumbnailCacheStats":
+            case "configureThumbnailCache":
+            case "clearThumbnailCache":
+            case "trimThumbnailCache":
+                thumbnailCache(call, result);
+                break;
+            case "clearOutputFiles":
+                clearOutputFiles(call, result);
+                break;
+            case "getMemoryInfo":
+            case "releaseMemory":
+                memoryInfo(call, result);
+                break;
+            case "configureMemoryBudget":
+                configureMemoryBudget(call, result);
+                break;
+            case "getMemoryBudget":
+                result.success(MemoryBudget.getInstance().getStats());
+                break;
+            case "getDocumentInfo":
+                getDocumentInfo(call, result);
+                break;
+            case "indexText":
+                indexText(call, result);
+                break;
+            case "searchText":
+                searchText(call, result);
+                break;
+            case "clearTextIndex":
+                TextIndexer.getInstance(context).clear(getSource(call),
+                        Boolean.TRUE.equals(call.argument("deletePersisted")));
+                result.success(null);
+                break;
             default:
                 result.notImplemented();
                 break;
@@ -61,20 +128,83 @@ public class PDFViewFlutterPlugin implements FlutterPlugin, MethodCallHandler {
         final String filePath = call.argument("filePath");
         final byte[] pdfData = call.argument("pdfData");
 
-        FlutterPDFView.extractImagesInternal(filePath, pdfData, context, new Result() {
-            @Override
-            public void success(Object o) {
-                result.success(o);
-            }
+        FlutterPDFView.extractImagesInternal(filePath, pdfData, call.argument("password"), context,
+                call.argument("requestId"), getPriority(call), ToolOutput.from(call, context),
+                FlutterPDFView.getDecodeEncoding(call), result);
+    }
 
-            @Override
-            public void error(String s, String s1, Object o) {
-                result.error(s, s1, o);
-            }
+    /**
+     * نسخه جریانی استخراج تصاویر: تصاویر هر صفحه به محض یافتن همراه با شمارنده‌های پیشرفت
+     * روی جریان رویدادها ارسال می‌شوند و چیزی جز خلاصه کار در حافظه نگه داشته نمی‌شود.
+     * بازه صفحات (startPage تا endPage، شامل هر دو) و سقف تعداد تصاویر اختیاری است.
+     */
+    private void extractImagesStream(MethodCall call, final Result result) {
+        final PdfSource source = getSource(call);
+        if (source == null) {
+            result.error("NoSource", "PDF source not available.", null);
+            return;
+        }
+        final Integer startPage = call.argument("startPage");
+        final Integer endPage = call.argument("endPage");
+        final Integer maxImages = call.argument("maxImages");
+        final ToolOutput output = ToolOutput.from(call, context);
+        final ImageEncoding decode = FlutterPDFView.getDecodeEncoding(call);
+        // همان شناسه برای لغو کار و برای رویدادها و خلاصه استفاده می‌شود
+        String argument = call.argument("requestId");
+        final String requestId = argument != null ? argument : "images-" + System.nanoTime();
 
+        WorkerPool.getInstance().submit(new WorkerPool.Job(requestId, getPriority(call), result,
+                "ExtractionError", "Failed to extract images.") {
             @Override
-            public void notImplemented() {
-                result.notImplemented();
+            protected Object execute() throws IOException {
+                final List<Map<String, Object>> pageImages = new ArrayList<>();
+                ImageExtractor extractor = new ImageExtractor(pageImages, output,
+                        maxImages != null ? maxImages : 0, decode);
+                int first = 0;
+                int last = -1;
+                int pagesProcessed = 0;
+
+                try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+                    PDDocument document = lease.getDocument();
+                    int pageCount = document.getNumberOfPages();
+                    first = Math.max(0, startPage != null ? startPage : 0);
+                    last = Math.min(pageCount - 1, endPage != null ? endPage : pageCount - 1);
+
+                    for (int page = first; page <= last && !extractor.isFull(); page++) {
+                        checkCancelled();
+                        synchronized (document) {
+                            extractor.processPage(page, document.getPage(page));
+                        }
+                        pagesProcessed++;
+
+                        // فهرست صفحات هر تصویر در ادامه کار تغییر می‌کند، پس پیش از ارسال کپی می‌شود
+                        List<Map<String, Object>> images = new ArrayList<>();
+                        for (Map<String, Object> image : pageImages) {
+                            Map<String, Object> copy = new HashMap<>(image);
+                            copy.put("pages", new ArrayList<>((List<?>) image.get("pages")));
+                            images.add(copy);
+                        }
+
+                        Map<String, Object> event = new HashMap<>();
+                        event.put("page", page);
+                        event.put("images", images);
+                        event.put("reusedImages", extractor.getReusedOnPage());
+                        event.put("pagesProcessed", pagesProcessed);
+                        event.put("totalPages", last - first + 1);
+                        event.put("imagesFound", extractor.getImageCount());
+                        events.emit(requestId, "images", event);
+                        pageImages.clear();
+                    }
+                }
+
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("requestId", requestId);
+                summary.put("pagesProcessed", pagesProcessed);
+                summary.put("totalPages", Math.max(0, last - first + 1));
+                summary.put("imagesFound", extractor.getImageCount());
+                summary.put("truncated", extractor.isFull());
+                summary.put("usages", extractor.getUsages());
+                return summary;
             }
         });
     }
@@ -82,48 +212,207 @@ public class PDFViewFlutterPlugin implements FlutterPlugin, MethodCallHandler {
     private void generateThumbnail(MethodCall call, final Result result) {
         final String filePath = call.argument("filePath");
         final byte[] pdfData = call.argument("pdfData");
-        final int quality = call.argument("quality");
-        final int page = 0; // همیشه از صفحه اول تصویر بندانگشتی تولید می‌شود
-
-        new Thread(() -> {
-            final Handler handler = new Handler(Looper.getMainLooper());
-            try {
-                PDDocument document;
-                if (filePath != null) {
-                    document = PDDocument.load(new File(filePath));
-                } else if (pdfData != null) {
-                    document = PDDocument.load(pdfData);
-                } else {
-                    handler.post(() -> result.error("NoSource", "PDF source not available for thumbnail.", null));
-                    return;
+        final ThumbnailRenderer.Options options = ThumbnailRenderer.Options.from(call, context);
+        final Integer pageArgument = call.argument("page");
+        final int page = pageArgument != null ? pageArgument : 0; // پیش‌فرض: صفحه اول
+        final ToolOutput output = ToolOutput.from(call, context);
+
+        final PdfSource source = PdfSource.of(filePath, pdfData, call.argument("password"));
+        if (source == null) {
+            result.error("NoSource", "PDF source not available for thumbnail.", null);
+            return;
+        }
+
+        WorkerPool.getInstance().submit(new WorkerPool.Job(call.argument("requestId"), getPriority(call), result,
+                "ThumbnailError", "Failed to generate thumbnail.") {
+            @Override
+            protected Object execute() throws IOException {
+                Map<String, Object> cached = ThumbnailRenderer.lookup(source, page, options, output);
+                if (cached != null) {
+                    return cached;
+                }
+                try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+                    checkCancelled();
+                    PDDocument document = lease.getDocument();
+                    synchronized (document) {
+                        return ThumbnailRenderer.render(document, source, page, options, output);
+                    }
+                }
+            }
+        });
+    }
+
+    private void generateThumbnails(MethodCall call, final Result result) {
+        final List<PdfSource> sources = new ArrayList<>();
+        List<Map<String, Object>> sourceArgs = call.argument("sources");
+        if (sourceArgs != null) {
+            for (Map<String, Object> sourceArg : sourceArgs) {
+                String password = sourceArg.get("password") != null
+                        ? (String) sourceArg.get("password") : call.<String>argument("password");
+                PdfSource source = PdfSource.of((String) sourceArg.get("filePath"), (byte[]) sourceArg.get("pdfData"),
+                        password);
+                if (source != null) {
+                    sources.add(source);
                 }
+            }
+        } else {
+            PdfSource source = getSource(call);
+            if (source != null) {
+                sources.add(source);
+            }
+        }
+        if (sources.isEmpty()) {
+            result.error("NoSource", "PDF source not available for thumbnails.", null);
+            return;
+        }
 
-                PDFRenderer renderer = new PDFRenderer(document);
-                // خط اصلاح شده: استفاده از ImageType.RGB به جای Bitmap.Config
-                Bitmap bitmap = renderer.renderImage(page, 1, ImageType.RGB); 
+        String requestId = call.argument("requestId");
+        new ThumbnailBatch(
+                requestId != null ? requestId : "thumbnails-" + System.nanoTime(),
+                getPriority(call),
+                sources,
+                call.argument("pages"),
+                ThumbnailRenderer.Options.from(call, context),
+                call.argument("chunkSize"),
+                ToolOutput.from(call, context),
+                events,
+                result).start();
+    }
 
-                ByteArrayOutputStream stream = new ByteArrayOutputStream();
-                bitmap.compress(Bitmap.CompressFormat.PNG, quality, stream);
-                byte[] byteArray = stream.toByteArray();
-                
-                int width = bitmap.getWidth();
-                int height = bitmap.getHeight();
+    private void getCacheStats(Result result) {
+        Map<String, Object> stats = DocumentCache.getInstance().getStats();
+        stats.put("bitmapPool", BitmapPool.getInstance().getStats());
+        result.success(stats);
+    }
 
-                bitmap.recycle(); // آزاد کردن حافظه
-                document.close();
+    /** تعداد و ابعاد صفحات، فهرست مطالب و مشخصات سند بدون رندر و تجزیه محتوای صفحات. */
+    private void getDocumentInfo(MethodCall call, Result result) {
+        final PdfSource source = getSource(call);
+        if (source == null) {
+            result.error("NoSource", "PDF source not available for document info.", null);
+            return;
+        }
+        WorkerPool.getInstance().submit(new WorkerPool.Job(call.argument("requestId"), getPriority(call), result,
+                "DocumentInfoError", "Failed to read document info.") {
+            @Override
+            protected Object execute() throws IOException {
+                return DocumentInfoReader.getInstance().read(source);
+            }
+        });
+    }
 
-                String base64 = Base64.encodeToString(byteArray, Base64.NO_WRAP);
+    private void indexText(MethodCall call, Result result) {
+        PdfSource source = getSource(call);
+        if (source == null) {
+            result.error("NoSource", "PDF source not available for text indexing.", null);
+            return;
+        }
+        String requestId = call.argument("requestId");
+        TextIndexer.getInstance(context).index(source,
+                requestId != null ? requestId : "text-" + System.nanoTime(),
+                getPriority(call),
+                Boolean.TRUE.equals(call.argument("persist")),
+                events,
+                result);
+    }
+
+    private void searchText(MethodCall call, Result result) {
+        PdfSource source = getSource(call);
+        String query = call.argument("query");
+        if (source == null || query == null) {
+            result.error("NoSource", "PDF source or query not available for text search.", null);
+            return;
+        }
+        Integer maxResults = call.argument("maxResults");
+        TextIndexer.getInstance(context).search(source, query, maxResults != null ? maxResults : 0,
+                getPriority(call), result);
+    }
+
+
+    /** سقف بودجه حافظه پلاگین؛ رزروهای فعلی حفظ می‌شوند و فقط رزروهای بعدی محدود می‌شوند. */
+    private void configureMemoryBudget(MethodCall call, Result result) {
+        Number maxBytes = call.argument("maxBytes");
+        if (maxBytes != null) {
+            MemoryBudget.getInstance().setMaxBytes(maxBytes.longValue());
+        }
+        result.success(MemoryBudget.getInstance().getStats());
+    }
+
+    /**
+     * آمار، تنظیم، پاک‌سازی و کوچک کردن کش دیسک تصاویر بندانگشتی؛ همه روی صف کاری اجرا
+     * می‌شوند چون پوشه کش را فهرست، مرتب و حذف می‌کنند. trim فایل‌ها را تا رسیدن به maxBytes
+     * (پیش‌فرض صفر) حذف می‌کند و setMaxBytes در صورت نیاز همان کار را با سقف جدید انجام می‌دهد.
+     */
+    private void thumbnailCache(final MethodCall call, Result result) {
+        final String method = call.method;
+        final Number maxBytes = call.argument("maxBytes");
+        final ThumbnailDiskCache cache = ThumbnailDiskCache.getInstance(context);
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, getPriority(call), result,
+                "ThumbnailCacheError", "Failed to access thumbnail cache.") {
+            @Override
+            protected Object execute() {
+                switch (method) {
+                    case "configureThumbnailCache":
+                        if (maxBytes != null) {
+                            cache.setMaxBytes(maxBytes.longValue());
+                        }
+                        return null;
+                    case "clearThumbnailCache":
+                        cache.clear();
+                        return null;
+                    case "trimThumbnailCache":
+                        cache.trim(maxBytes != null ? maxBytes.longValue() : 0);
+                        return cache.getStats();
+                    default:
+                        return cache.getStats();
+                }
+            }
+        });
+    }
 
-                Map<String, Object> imageData = new HashMap<>();
-                imageData.put("data", base64);
-                imageData.put("width", width);
-                imageData.put("height", height);
+    /** حذف همه فایل‌های خروجی حالت file؛ مسیرهای برگردانده‌شده قبلی دیگر معتبر نیستند. */
+    private void clearOutputFiles(MethodCall call, Result result) {
+        final File directory = ToolOutput.directory(context);
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, getPriority(call), result,
+                "OutputError", "Failed to clear output files.") {
+            @Override
+            protected Object execute() {
+                ToolOutput.cleanup(directory, 0, 0);
+                return null;
+            }
+        });
+    }
 
-                handler.post(() -> result.success(imageData));
-            } catch (IOException e) {
-                handler.post(() -> result.error("ThumbnailError", "Failed to generate thumbnail.", e.toString()));
+    /** گزارش حافظه آمار کش دیسک را هم می‌خواند، پس مانند آن روی صف کاری اجرا می‌شود. */
+    private void memoryInfo(MethodCall call, Result result) {
+        final boolean release = "releaseMemory".equals(call.method);
+        final MemoryTrimmer trimmer = memoryTrimmer;
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, getPriority(call), result,
+                "MemoryError", "Failed to read memory info.") {
+            @Override
+            protected Object execute() {
+                if (release) {
+                    // کش رندر نمایشگرها فقط روی نخ اصلی قابل دسترسی است
+                    handler.post(FlutterPDFView::trimRenderCaches);
+                    trimmer.release();
+                }
+                return trimmer.getInfo();
             }
-        }).start();
+        });
+    }
+
+    private void cancel(MethodCall call, Result result) {
+        String requestId = call.argument("requestId");
+        result.success(requestId != null && WorkerPool.getInstance().cancel(requestId));
+    }
+
+    private static PdfSource getSource(MethodCall call) {
+        return PdfSource.of(call.argument("filePath"), call.argument("pdfData"), call.argument("password"));
+    }
+
+    private int getPriority(MethodCall call) {
+        Integer priority = call.argument("priority");
+        return priority != null ? priority : 0;
     }
 
     @Override
@@ -131,6 +420,22 @@ public class PDFViewFlutterPlugin implements FlutterPlugin, MethodCallHandler {
         if (channel != null) {
             channel.setMethodCallHandler(null);
         }
+        if (eventChannel != null) {
+            eventChannel.setStreamHandler(null);
+        }
+        if (memoryTrimmer != null) {
+            context.unregisterComponentCallbacks(memoryTrimmer);
+            memoryTrimmer = null;
+        }
+        synchronized (PDFViewFlutterPlugin.class) {
+            if (--attachedEngines == 0) {
+                WorkerPool.shutdown();
+                DocumentCache.getInstance().clear();
+                BitmapPool.getInstance().clear();
+                TextIndexer.getInstance(context).clear(null, false);
+                DocumentInfoReader.getInstance().clear();
+            }
+        }
         context = null;
     }
 }
@@ -0,0 +1,139 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+
+import com.tom_roush.pdfbox.io.MemoryUsageSetting;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * منبع یک سند PDF برای ابزارها: یا مسیر فایل یا داده‌های بایت، همراه با رمز اختیاری.
+ * کلید هویت منبع برای کش‌ها از اینجا ساخته می‌شود.
+ */
+final class PdfSource {
+    // حداکثر حافظه اصلی برای بافرهای PDFBox؛ مازاد آن در فایل موقت نگه داشته می‌شود
+    static final long MAX_MAIN_MEMORY_BYTES = 8L * 1024 * 1024;
+
+    private static final String SPILL_DIRECTORY = "pdfview_spill";
+
+    final String filePath;
+    final byte[] pdfData;
+    // رمز اسناد رمزگذاری‌شده؛ رشته خالی معادل بدون رمز است
+    final String password;
+    private String key;
+
+    private PdfSource(String filePath, byte[] pdfData, String password) {
+        this.filePath = filePath;
+        this.pdfData = pdfData;
+        this.password = password;
+    }
+
+    /** در صورت نبودن هیچ منبعی null برمی‌گرداند. */
+    static PdfSource of(String filePath, byte[] pdfData) {
+        return of(filePath, pdfData, null);
+    }
+
+    static PdfSource of(String filePath, byte[] pdfData, String password) {
+        if (password != null && password.isEmpty()) {
+            password = null;
+        }
+        if (filePath != null) {
+            return new PdfSource(filePath, null, password);
+        } else if (pdfData != null) {
+            return new PdfSource(null, pdfData, password);
+        }
+        return null;
+    }
+
+    /** سند با رمز باز می‌شود؛ نتایج آن نباید رمزنشده روی دیسک ذخیره شوند. */
+    boolean isProtected() {
+        return password != null;
+    }
+
+    /**
+     * کلید فایل از مسیر، زمان تغییر و اندازه ساخته می‌شود تا تغییر فایل کش را باطل کند؛
+     * کلید داده‌های بایت، هش SHA-256 محتوا است. برای منابع رمزدار هش رمز همراه کلید است
+     * تا سند بازشده با یک رمز برای درخواستی با رمز دیگر (یا بدون رمز) استفاده نشود.
+     */
+    synchronized String key() {
+        if (key == null) {
+            if (filePath != null) {
+                File file = new File(filePath);
+                key = "file:" + file.getAbsolutePath() + ":" + file.lastModified() + ":" + file.length();
+            } else {
+                key = "sha256:" + sha256Hex(pdfData);
+            }
+            if (password != null) {
+                key += ":pw:" + sha256Hex((key + '\u0000' + password).getBytes(Charset.forName("UTF-8")));
+            }
+        }
+        return key;
+    }
+
+    long sizeBytes() {
+        return filePath != null ? new File(filePath).length() : pdfData.length;
+    }
+
+    /** اسناد فایلی مستقیماً از دیسک خوانده می‌شوند و کل فایل در حافظه کپی نمی‌شود. */
+    PDDocument load() throws IOException {
+        return load(MemoryUsageSetting.setupMixed(MAX_MAIN_MEMORY_BYTES));
+    }
+
+    /** با setupTempFileOnly بافرهای PDFBox به جای حافظه در فایل موقت نگه داشته می‌شوند. */
+    PDDocument load(MemoryUsageSetting setting) throws IOException {
+        String secret = password != null ? password : "";
+        if (filePath != null) {
+            return PDDocument.load(new File(filePath), secret, setting);
+        }
+        return PDDocument.load(pdfData, secret, null, null, setting);
+    }
+
+    /** برآورد حافظه سند بازشده برای بودجه حافظه: بافرهای اصلی PDFBox تا سقف آن‌ها. */
+    long memoryEstimate() {
+        return Math.min(sizeBytes(), MAX_MAIN_MEMORY_BYTES);
+    }
+
+    /**
+     * داده‌های بایت را یک بار در یک فایل موقت در پوشه کش می‌نویسد تا نمایشگر و PDFBox
+     * هر دو از همان فایل بخوانند؛ حذف فایل بر عهده فراخواننده است.
+     */
+    static File spill(byte[] data, Context context) throws IOException {
+        File directory = new File(context.getCacheDir(), SPILL_DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = File.createTempFile("pdf_", ".pdf", directory);
+        try (OutputStream stream = new FileOutputStream(file)) {
+            stream.write(data);
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            throw e;
+        }
+        return file;
+    }
+
+    static String sha256Hex(byte[] data) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
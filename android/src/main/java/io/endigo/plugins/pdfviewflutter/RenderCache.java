@@ -0,0 +1,104 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.github.barteksc.pdfviewer.PDFView;
+import com.github.barteksc.pdfviewer.model.PagePart;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * دسترسی به کش بخش‌های رندرشده یک نمایشگر. کلاس CacheManager کتابخانه عمومی نیست و
+ * نوع آن در کد پلاگین قابل استفاده نیست؛ فیلد و متدهای آن یک بار با بازتاب پیدا و نگه
+ * داشته می‌شوند. اگر نسخه کتابخانه آن‌ها را نداشته باشد متدها null یا false برمی‌گردانند.
+ * فقط روی نخ اصلی فراخوانی می‌شود.
+ */
+final class RenderCache {
+    private static Field cacheManagerField;
+    private static Method getPageParts;
+    private static Method getThumbnails;
+    private static Method recycle;
+    private static boolean unavailable;
+
+    private RenderCache() {
+    }
+
+    /** نسخه‌ای از بخش‌های کش (بدون تصاویر بندانگشتی)؛ کتابخانه هر بار کل لیست را کپی می‌کند. */
+    static List<PagePart> pageParts(PDFView pdfView) {
+        return invoke(pdfView, getPageParts);
+    }
+
+    static List<PagePart> thumbnails(PDFView pdfView) {
+        return invoke(pdfView, getThumbnails);
+    }
+
+    /**
+     * بیت‌مپ همه بخش‌ها و تصاویر بندانگشتی کش را آزاد و کش را خالی می‌کند. رسم روی همین
+     * نخ انجام می‌شود، پس بیت‌مپ آزادشده‌ای رسم نمی‌شود؛ فراخواننده باید صفحات قابل
+     * مشاهده را دوباره بارگذاری کند.
+     */
+    static boolean recycle(PDFView pdfView) {
+        Object cacheManager = cacheManager(pdfView);
+        if (cacheManager == null) {
+            return false;
+        }
+        try {
+            recycle.invoke(cacheManager);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unavailable = true;
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PagePart> invoke(PDFView pdfView, Method method) {
+        Object cacheManager = cacheManager(pdfView);
+        if (cacheManager == null) {
+            return null;
+        }
+        try {
+            return (List<PagePart>) method.invoke(cacheManager);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unavailable = true;
+            return null;
+        }
+    }
+
+    private static Object cacheManager(PDFView pdfView) {
+        if (unavailable || !resolve()) {
+            return null;
+        }
+        try {
+            return cacheManagerField.get(pdfView);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unavailable = true;
+            return null;
+        }
+    }
+
+    private static boolean resolve() {
+        if (cacheManagerField != null) {
+            return true;
+        }
+        try {
+            Field field = PDFView.class.getDeclaredField("cacheManager");
+            field.setAccessible(true);
+            Class<?> type = field.getType();
+            getPageParts = accessible(type.getMethod("getPageParts"));
+            getThumbnails = accessible(type.getMethod("getThumbnails"));
+            recycle = accessible(type.getMethod("recycle"));
+            cacheManagerField = field;
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unavailable = true;
+            return false;
+        }
+    }
+
+    // متدهای عمومی یک کلاس غیرعمومی بدون setAccessible قابل فراخوانی نیستند
+    private static Method accessible(Method method) {
+        method.setAccessible(true);
+        return method;
+    }
+}
@@ -0,0 +1,87 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.github.barteksc.pdfviewer.PDFView;
+import com.github.barteksc.pdfviewer.util.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * تنظیمات کیفیت رندر و کش نمایشگر: یک پروفایل پایه (lowMemory، balanced، highQuality)
+ * که هر مقدار آن با پارامتر جداگانه قابل بازنویسی است. balanced همان رفتار پیشین پلاگین است.
+ * اندازه کش، اندازه بخش‌ها و فاصله پیش‌بارگذاری در کتابخانه متغیرهای سراسری‌اند، پس
+ * با بارگذاری یا به‌روزرسانی هر نمایشگر برای همه نمایشگرها اعمال می‌شوند.
+ */
+final class RenderProfile {
+    static final String LOW_MEMORY = "lowMemory";
+    static final String BALANCED = "balanced";
+    static final String HIGH_QUALITY = "highQuality";
+
+    final String name;
+    // ARGB_8888 به جای RGB_565 برای بخش‌های رندرشده
+    final boolean bestQuality;
+    final boolean antialiasing;
+    // بیشینه تعداد بخش‌های رندرشده در کش هر نمایشگر
+    final int cacheSize;
+    // اندازه ضلع هر بخش (کاشی) بر حسب پیکسل
+    final float partSize;
+    // فاصله پیش‌بارگذاری بیرون از صفحه نمایش در جهت اسکرول، بر حسب dp؛ کتابخانه فقط عدد صحیح می‌پذیرد
+    final int preloadOffset;
+
+    private RenderProfile(String name, boolean bestQuality, boolean antialiasing, int cacheSize,
+                          float partSize, int preloadOffset) {
+        this.name = name;
+        this.bestQuality = bestQuality;
+        this.antialiasing = antialiasing;
+        this.cacheSize = cacheSize;
+        this.partSize = partSize;
+        this.preloadOffset = preloadOffset;
+    }
+
+    static RenderProfile named(String name) {
+        if (LOW_MEMORY.equals(name)) {
+            return new RenderProfile(LOW_MEMORY, false, false, 40, 256, 0);
+        } else if (HIGH_QUALITY.equals(name)) {
+            return new RenderProfile(HIGH_QUALITY, true, true, 240, 256, 60);
+        }
+        return new RenderProfile(BALANCED, false, false, 120, 256, 20);
+    }
+
+    static RenderProfile from(Map<String, Object> params) {
+        RenderProfile base = named((String) params.get("renderProfile"));
+        return new RenderProfile(base.name,
+                params.get("bestQuality") != null ? (Boolean) params.get("bestQuality") : base.bestQuality,
+                params.get("antialiasing") != null ? (Boolean) params.get("antialiasing") : base.antialiasing,
+                params.get("cacheSize") != null ? Math.max(1, ((Number) params.get("cacheSize")).intValue()) : base.cacheSize,
+                params.get("partSize") != null ? Math.max(64, ((Number) params.get("partSize")).floatValue()) : base.partSize,
+                params.get("preloadOffset") != null ? Math.max(0, Math.round(((Number) params.get("preloadOffset")).floatValue())) : base.preloadOffset);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("renderProfile", name);
+        map.put("bestQuality", bestQuality);
+        map.put("antialiasing", antialiasing);
+        map.put("cacheSize", cacheSize);
+        map.put("partSize", (double) partSize);
+        map.put("preloadOffset", (double) preloadOffset);
+        return map;
+    }
+
+    /** برآورد بیشینه حافظه بیت‌مپ‌های کش بخش‌ها: ARGB_8888 چهار و RGB_565 دو بایت در هر پیکسل. */
+    long estimateBytes() {
+        return (long) cacheSize * (long) (partSize * partSize) * (bestQuality ? 4 : 2);
+    }
+
+    /**
+     * مقادیر سراسری پیش از بارگذاری تنظیم می‌شوند؛ فاصله پیش‌بارگذاری فقط هنگام بارگذاری
+     * سند خوانده می‌شود و بقیه در رندرهای بعدی اثر دارند.
+     */
+    void apply(PDFView pdfView) {
+        Constants.Cache.CACHE_SIZE = cacheSize;
+        Constants.PART_SIZE = partSize;
+        Constants.PRELOAD_OFFSET = preloadOffset;
+        pdfView.useBestQuality(bestQuality);
+        pdfView.enableAntialiasing(antialiasing);
+    }
+}
@@ -0,0 +1,82 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * سندی که داده‌های آن تکه به تکه از Dart می‌رسد و در یک فایل موقت نوشته می‌شود.
+ * Pdfium در این نسخه از کتابخانه فقط فایل کامل را باز می‌کند، پس این فقط انتقال تکه‌ای
+ * همراه با گزارش پیشرفت است و نمایش پس از رسیدن آخرین تکه آغاز می‌شود.
+ * تکه‌ها روی صف کاری نوشته می‌شوند و Dart هر تکه را پس از پاسخ تکه قبلی می‌فرستد، پس
+ * نوشتن‌ها ترتیبی‌اند؛ قفل فقط بستن هم‌زمان از نخ اصلی را با نوشتن هماهنگ می‌کند.
+ */
+final class StreamingDocument {
+    private static final String DIRECTORY = "pdfview_stream";
+
+    private final File file;
+    private final long expectedBytes;
+    private OutputStream output;
+    private long receivedBytes;
+    private boolean complete;
+
+    StreamingDocument(Context context, long expectedBytes) throws IOException {
+        File directory = new File(context.getCacheDir(), DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        this.file = File.createTempFile("pdf_", ".pdf", directory);
+        this.output = new FileOutputStream(file);
+        this.expectedBytes = expectedBytes;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    synchronized boolean isComplete() {
+        return complete;
+    }
+
+    synchronized void append(byte[] data) throws IOException {
+        if (output == null) {
+            throw new IOException("Stream already finished.");
+        }
+        output.write(data);
+        receivedBytes += data.length;
+    }
+
+    synchronized void finish() throws IOException {
+        if (output == null) {
+            throw new IOException("Stream already finished.");
+        }
+        output.close();
+        output = null;
+        complete = true;
+    }
+
+    synchronized Map<String, Object> progress() {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("receivedBytes", receivedBytes);
+        progress.put("totalBytes", expectedBytes > 0 ? expectedBytes : null);
+        progress.put("complete", complete);
+        return progress;
+    }
+
+    synchronized void delete() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException ignored) {
+            }
+            output = null;
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+}
@@ -0,0 +1,209 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * نمایه معکوس متن یک سند: برای هر واژه فهرست صفحاتی که آن را دارند، و برای هر صفحه
+ * واژه‌ها به ترتیب خواندن همراه با کادر مختصات‌شان. صفحات به ترتیب اضافه می‌شوند و
+ * هر صفحه بلافاصله پس از افزوده شدن قابل جست‌وجو است.
+ * مختصات کادرها بر حسب نقطه PDF و با مبدأ گوشه بالا-چپ صفحه است.
+ */
+final class TextIndex {
+    private static final int MAGIC = 0x50545831; // "PTX1"
+
+    /** واژه‌های یک صفحه؛ boxes برای هر واژه چهار عدد left، top، right و bottom دارد. */
+    static final class Page {
+        final float width;
+        final float height;
+        final String[] terms;
+        final float[] boxes;
+
+        Page(float width, float height, String[] terms, float[] boxes) {
+            this.width = width;
+            this.height = height;
+            this.terms = terms;
+            this.boxes = boxes;
+        }
+    }
+
+    final String key;
+    final int totalPages;
+    private final List<Page> pages = new ArrayList<>();
+    private final Map<String, List<Integer>> postings = new HashMap<>();
+    private int wordCount;
+
+    TextIndex(String key, int totalPages) {
+        this.key = key;
+        this.totalPages = totalPages;
+    }
+
+    /** واژه را برای نمایه و جست‌وجو یکسان می‌کند (حروف کوچک، مستقل از زبان دستگاه). */
+    static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT);
+    }
+
+    /** متن را به واژه‌های یکسان‌شده می‌شکند. */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalize(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    synchronized int getIndexedPages() {
+        return pages.size();
+    }
+
+    synchronized boolean isComplete() {
+        return pages.size() >= totalPages;
+    }
+
+    synchronized int getWordCount() {
+        return wordCount;
+    }
+
+    /** فقط صفحه بعدی پذیرفته می‌شود تا نمایه‌سازی‌های همزمان یک سند صفحه‌ای را دو بار اضافه نکنند. */
+    synchronized boolean addPage(int pageIndex, Page page) {
+        if (pageIndex != pages.size()) {
+            return false;
+        }
+        pages.add(page);
+        wordCount += page.terms.length;
+        for (String term : page.terms) {
+            List<Integer> pageList = postings.get(term);
+            if (pageList == null) {
+                pageList = new ArrayList<>();
+                postings.put(term, pageList);
+            }
+            if (pageList.isEmpty() || pageList.get(pageList.size() - 1) != pageIndex) {
+                pageList.add(pageIndex);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * عبارت را در صفحات نمایه‌شده جست‌وجو می‌کند؛ واژه‌ها باید پشت سر هم بیایند.
+     * هر نتیجه شامل شماره صفحه، ابعاد صفحه و کادر هر واژه تطبیق‌یافته است.
+     */
+    synchronized List<Map<String, Object>> search(String query, int maxResults) {
+        List<Map<String, Object>> hits = new ArrayList<>();
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return hits;
+        }
+        // کوتاه‌ترین فهرست صفحات به عنوان نامزدها؛ بقیه واژه‌ها در خود صفحه بررسی می‌شوند
+        List<Integer> candidates = null;
+        for (String token : tokens) {
+            List<Integer> pageList = postings.get(token);
+            if (pageList == null) {
+                return hits;
+            }
+            if (candidates == null || pageList.size() < candidates.size()) {
+                candidates = pageList;
+            }
+        }
+
+        for (int pageIndex : candidates) {
+            Page page = pages.get(pageIndex);
+            for (int i = 0; i + tokens.size() <= page.terms.length; i++) {
+                if (!matchesAt(page, i, tokens)) {
+                    continue;
+                }
+                List<Map<String, Object>> boxes = new ArrayList<>();
+                for (int w = i; w < i + tokens.size(); w++) {
+                    boxes.add(box(page, w));
+                }
+                Map<String, Object> hit = new HashMap<>();
+                hit.put("page", pageIndex);
+                hit.put("pageWidth", (double) page.width);
+                hit.put("pageHeight", (double) page.height);
+                hit.put("wordIndex", i);
+                hit.put("boxes", boxes);
+                hits.add(hit);
+                if (maxResults > 0 && hits.size() >= maxResults) {
+                    return hits;
+                }
+            }
+        }
+        return hits;
+    }
+
+    private static boolean matchesAt(Page page, int start, List<String> tokens) {
+        for (int t = 0; t < tokens.size(); t++) {
+            if (!page.terms[start + t].equals(tokens.get(t))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> box(Page page, int word) {
+        Map<String, Object> box = new HashMap<>();
+        box.put("left", (double) page.boxes[word * 4]);
+        box.put("top", (double) page.boxes[word * 4 + 1]);
+        box.put("right", (double) page.boxes[word * 4 + 2]);
+        box.put("bottom", (double) page.boxes[word * 4 + 3]);
+        return box;
+    }
+
+    synchronized void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeUTF(key);
+        out.writeInt(totalPages);
+        out.writeInt(pages.size());
+        for (Page page : pages) {
+            out.writeFloat(page.width);
+            out.writeFloat(page.height);
+            out.writeInt(page.terms.length);
+            for (int i = 0; i < page.terms.length; i++) {
+                out.writeUTF(page.terms[i]);
+                for (int c = 0; c < 4; c++) {
+                    out.writeFloat(page.boxes[i * 4 + c]);
+                }
+            }
+        }
+    }
+
+    /** اگر فایل متعلق به سند دیگری باشد یا قالب آن نامعتبر باشد null برمی‌گرداند. */
+    static TextIndex read(DataInputStream in, String expectedKey) throws IOException {
+        if (in.readInt() != MAGIC || !expectedKey.equals(in.readUTF())) {
+            return null;
+        }
+        TextIndex index = new TextIndex(expectedKey, in.readInt());
+        int pageCount = in.readInt();
+        for (int p = 0; p < pageCount; p++) {
+            float width = in.readFloat();
+            float height = in.readFloat();
+            String[] terms = new String[in.readInt()];
+            float[] boxes = new float[terms.length * 4];
+            for (int i = 0; i < terms.length; i++) {
+                terms[i] = in.readUTF();
+                for (int c = 0; c < 4; c++) {
+                    boxes[i * 4 + c] = in.readFloat();
+                }
+            }
+            index.addPage(p, new Page(width, height, terms, boxes));
+        }
+        return index;
+    }
+}
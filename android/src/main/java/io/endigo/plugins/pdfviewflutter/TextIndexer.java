@@ -0,0 +1,342 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
+import com.tom_roush.pdfbox.text.PDFTextStripper;
+import com.tom_roush.pdfbox.text.TextPosition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * نمایه‌سازی متن اسناد در پس‌زمینه و جست‌وجو در آن‌ها.
+ * صفحات به ترتیب روی صف کاری مشترک استخراج می‌شوند و هر صفحه به محض نمایه شدن
+ * قابل جست‌وجو است. نمایه‌ها در حافظه (چند سند اخیر) و در صورت درخواست روی دیسک
+ * نگه داشته می‌شوند و نمایه‌سازی نیمه‌تمام از همان صفحه ادامه می‌یابد.
+ * حجم نمایه‌های روی دیسک به MAX_PERSISTED_BYTES محدود است (کم‌استفاده‌ترین‌ها اول حذف می‌شوند).
+ */
+final class TextIndexer {
+    static final int MAX_INDEXES = 4;
+    static final int DEFAULT_MAX_RESULTS = 100;
+    static final long MAX_PERSISTED_BYTES = 20L * 1024 * 1024;
+
+    private static final String DIRECTORY = "pdfview_text";
+
+    private static TextIndexer instance;
+
+    private final File directory;
+    private final LinkedHashMap<String, TextIndex> indexes = new LinkedHashMap<String, TextIndex>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, TextIndex> eldest) {
+            return size() > MAX_INDEXES;
+        }
+    };
+
+    private TextIndexer(File directory) {
+        this.directory = directory;
+    }
+
+    static synchronized TextIndexer getInstance(Context context) {
+        if (instance == null) {
+            instance = new TextIndexer(new File(context.getCacheDir(), DIRECTORY));
+        }
+        return instance;
+    }
+
+    /**
+     * صفحات نمایه‌نشده سند را نمایه می‌کند و برای هر صفحه رویداد textPage می‌فرستد.
+     * نتیجه خلاصه‌ای از وضعیت نمایه است؛ در صورت لغو، صفحات نمایه‌شده حفظ می‌شوند.
+     */
+    void index(final PdfSource source, final String requestId, int priority, final boolean persist,
+               final ToolEvents events, Result result) {
+        WorkerPool.getInstance().submit(new WorkerPool.Job(requestId, priority, result,
+                "TextIndexError", "Failed to index text.") {
+            @Override
+            protected Object execute() throws IOException {
+                TextIndex index = find(source);
+                if (index == null || !index.isComplete()) {
+                    index = build(source, index, persist, this, events, requestId);
+                }
+                Map<String, Object> summary = describe(index);
+                summary.put("requestId", requestId);
+                return summary;
+            }
+        });
+    }
+
+    private TextIndex build(PdfSource source, TextIndex index, boolean persist, WorkerPool.Job job,
+                            ToolEvents events, String requestId) throws IOException {
+        try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+            PDDocument document = lease.getDocument();
+            if (index == null) {
+                index = new TextIndex(source.key(), document.getNumberOfPages());
+                synchronized (this) {
+                    indexes.put(index.key, index);
+                }
+            }
+            PageTextStripper stripper = new PageTextStripper();
+            // متن اسناد رمزدار رمزنشده روی دیسک نوشته نمی‌شود
+            boolean store = persist && !source.isProtected();
+            try {
+                for (int pageIndex = index.getIndexedPages(); pageIndex < index.totalPages; pageIndex++) {
+                    job.checkCancelled();
+                    TextIndex.Page page;
+                    synchronized (document) {
+                        page = stripper.extract(document, pageIndex);
+                    }
+                    if (index.addPage(pageIndex, page) && events != null) {
+                        Map<String, Object> event = describe(index);
+                        event.put("page", pageIndex);
+                        event.put("words", page.terms.length);
+                        events.emit(requestId, "textPage", event);
+                    }
+                }
+            } catch (CancellationException e) {
+                // صفحات نمایه‌شده تا لحظه لغو برای ادامه بعدی ذخیره می‌شوند؛ خطای ذخیره لغو را پنهان نمی‌کند
+                if (store) {
+                    try {
+                        persist(index);
+                    } catch (IOException ignored) {
+                    }
+                }
+                throw e;
+            }
+            // پس از خطای نمایه‌سازی چیزی ذخیره نمی‌شود تا خطای اصلی گزارش شود
+            if (store) {
+                persist(index);
+            }
+        }
+        return index;
+    }
+
+    /** فقط در صفحاتی که تاکنون نمایه شده‌اند جست‌وجو می‌کند و نمایه‌سازی را آغاز نمی‌کند. */
+    void search(final PdfSource source, final String query, final int maxResults, int priority, Result result) {
+        WorkerPool.getInstance().submit(new WorkerPool.Job(null, priority, result,
+                "TextSearchError", "Failed to search text.") {
+            @Override
+            protected Object execute() throws IOException {
+                TextIndex index = find(source);
+                Map<String, Object> response = index != null ? describe(index) : new HashMap<String, Object>();
+                response.put("hits", index != null
+                        ? index.search(query, maxResults > 0 ? maxResults : DEFAULT_MAX_RESULTS)
+                        : new ArrayList<>());
+                if (index == null) {
+                    response.put("indexedPages", 0);
+                    response.put("totalPages", null);
+                    response.put("complete", false);
+                }
+                return response;
+            }
+        });
+    }
+
+    /** نمایه یک سند یا در صورت null همه نمایه‌ها را از حافظه و در صورت درخواست از دیسک حذف می‌کند. */
+    synchronized void clear(PdfSource source, boolean deletePersisted) {
+        if (source == null) {
+            indexes.clear();
+            File[] files = directory.listFiles();
+            if (deletePersisted && files != null) {
+                for (File file : files) {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+            return;
+        }
+        indexes.remove(source.key());
+        if (deletePersisted) {
+            //noinspection ResultOfMethodCallIgnored
+            fileFor(source.key()).delete();
+        }
+    }
+
+    /** تعداد نمایه‌های نگه‌داشته‌شده در حافظه. */
+    synchronized int getIndexCount() {
+        return indexes.size();
+    }
+
+    /** نمایه موجود در حافظه یا در نبود آن، نمایه ذخیره‌شده روی دیسک. */
+    private TextIndex find(PdfSource source) throws IOException {
+        String key = source.key();
+        synchronized (this) {
+            TextIndex index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+        }
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        // زمان استفاده برای ترتیب حذف در trimPersisted
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        TextIndex index;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            index = TextIndex.read(in, key);
+        }
+        if (index == null) {
+            return null;
+        }
+        synchronized (this) {
+            TextIndex existing = indexes.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            indexes.put(key, index);
+        }
+        return index;
+    }
+
+    /** نوشتن در فایل موقت و سپس تغییر نام، تا نمایه نیمه‌نوشته هرگز خوانده نشود. */
+    private void persist(TextIndex index) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = fileFor(index.key);
+        File temp = File.createTempFile("index", ".tmp", directory);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            index.write(out);
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw e;
+        }
+        if (!temp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            throw new IOException("Cannot write " + file);
+        }
+        trimPersisted(MAX_PERSISTED_BYTES);
+    }
+
+    /** قدیمی‌ترین نمایه‌های دیسک (بر اساس زمان آخرین استفاده) تا رسیدن حجم کل به maxBytes حذف می‌شوند. */
+    private synchronized void trimPersisted(long maxBytes) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(b.lastModified(), a.lastModified());
+            }
+        });
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+            if (total > maxBytes) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(directory, PdfSource.sha256Hex(key.getBytes(Charset.forName("UTF-8"))) + ".idx");
+    }
+
+    private static Map<String, Object> describe(TextIndex index) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("indexedPages", index.getIndexedPages());
+        status.put("totalPages", index.totalPages);
+        status.put("complete", index.isComplete());
+        status.put("wordCount", index.getWordCount());
+        return status;
+    }
+
+    /** واژه‌های یک صفحه را با کادر هر واژه جمع‌آوری می‌کند. */
+    private static final class PageTextStripper extends PDFTextStripper {
+        private final List<String> terms = new ArrayList<>();
+        private float[] boxes = new float[256];
+
+        PageTextStripper() throws IOException {
+            super();
+        }
+
+        TextIndex.Page extract(PDDocument document, int pageIndex) throws IOException {
+            terms.clear();
+            setStartPage(pageIndex + 1);
+            setEndPage(pageIndex + 1);
+            writeText(document, new StringWriter());
+
+            PDPage page = document.getPage(pageIndex);
+            PDRectangle box = page.getCropBox();
+            boolean rotated = page.getRotation() % 180 != 0;
+            return new TextIndex.Page(
+                    rotated ? box.getHeight() : box.getWidth(),
+                    rotated ? box.getWidth() : box.getHeight(),
+                    terms.toArray(new String[0]),
+                    Arrays.copyOf(boxes, terms.size() * 4));
+        }
+
+        /**
+         * اگر هر نویسه متن یک TextPosition داشته باشد کادر هر واژه دقیق است؛ در غیر این
+         * صورت (مثلاً لیگاتورها یا متن راست‌به‌چپ بازچینی‌شده) کادر کل بخش استفاده می‌شود.
+         */
+        @Override
+        protected void writeString(String text, List<TextPosition> positions) {
+            boolean aligned = text.length() == positions.size();
+            int start = -1;
+            for (int i = 0; i <= text.length(); i++) {
+                boolean wordChar = i < text.length() && TextIndex.isWordChar(text.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    if (aligned) {
+                        addWord(text.substring(start, i), positions.subList(start, i));
+                    } else {
+                        addWord(text.substring(start, i), positions);
+                    }
+                    start = -1;
+                }
+            }
+        }
+
+        private void addWord(String word, List<TextPosition> positions) {
+            if (positions.isEmpty()) {
+                return;
+            }
+            float left = Float.MAX_VALUE;
+            float top = Float.MAX_VALUE;
+            float right = -Float.MAX_VALUE;
+            float bottom = -Float.MAX_VALUE;
+            for (TextPosition position : positions) {
+                left = Math.min(left, position.getXDirAdj());
+                top = Math.min(top, position.getYDirAdj() - position.getHeightDir());
+                right = Math.max(right, position.getXDirAdj() + position.getWidthDirAdj());
+                bottom = Math.max(bottom, position.getYDirAdj());
+            }
+            int offset = terms.size() * 4;
+            if (offset + 4 > boxes.length) {
+                boxes = Arrays.copyOf(boxes, boxes.length * 2);
+            }
+            boxes[offset] = left;
+            boxes[offset + 1] = top;
+            boxes[offset + 2] = right;
+            boxes[offset + 3] = bottom;
+            terms.add(TextIndex.normalize(word));
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * درخواست دسته‌ای تصاویر بندانگشتی: هر سند یک بار بارگذاری می‌شود، صفحات در بخش‌های
+ * کوچک روی صف کاری مشترک رندر می‌شوند و هر بخش به محض آماده شدن روی جریان رویدادها
+ * ارسال می‌شود. نتیجه خود فراخوانی پس از پایان همه بخش‌ها خلاصه‌ای از کار است.
+ */
+final class ThumbnailBatch {
+    static final int DEFAULT_CHUNK_SIZE = 4;
+
+    private final String requestId;
+    private final int priority;
+    private final List<PdfSource> sources;
+    private final List<Object> pages;
+    private final ThumbnailRenderer.Options options;
+    private final int chunkSize;
+    private final ToolOutput output;
+    private final ToolEvents events;
+    private final Result result;
+
+    // تعداد کارهای باقی‌مانده؛ کارهای برنامه‌ریزی هر سند پیش از پایان، کارهای رندر خود را اضافه می‌کنند
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger rendered = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile boolean cancelled;
+
+    ThumbnailBatch(String requestId, int priority, List<PdfSource> sources, List<Object> pages,
+                   ThumbnailRenderer.Options options, Integer chunkSize, ToolOutput output, ToolEvents events,
+                   Result result) {
+        this.requestId = requestId;
+        this.priority = priority;
+        this.sources = sources;
+        this.pages = pages;
+        this.options = options;
+        this.chunkSize = chunkSize != null && chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+        this.output = output;
+        this.events = events;
+        this.result = result;
+    }
+
+    void start() {
+        pending.set(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            final int sourceIndex = i;
+            WorkerPool.getInstance().submit(new WorkerPool.Job(requestId, priority, new PartResult(sourceIndex, null, null),
+                    "ThumbnailError", "Failed to generate thumbnails.") {
+                @Override
+                protected Object execute() throws IOException {
+                    planSource(sourceIndex, this);
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void planSource(int sourceIndex, WorkerPool.Job job) throws IOException {
+        final PdfSource source = sources.get(sourceIndex);
+        List<Integer> pageIndices;
+        if (needsPageCount(pages)) {
+            // بارگذاری اولیه سند در کش؛ کارهای رندر بعدی از همین نسخه استفاده می‌کنند
+            try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+                pageIndices = resolvePages(pages, lease.getDocument().getNumberOfPages());
+            }
+        } else {
+            // صفحات صریح: سند فقط در صورت نبودن صفحات در کش دیسک بارگذاری می‌شود
+            pageIndices = resolvePages(pages, Integer.MAX_VALUE);
+        }
+        // لغوی که هنگام بارگذاری سند رسیده باشد پیش از ساختن کارهای رندر اعمال می‌شود
+        job.checkCancelled();
+
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < pageIndices.size(); start += chunkSize) {
+            chunks.add(pageIndices.subList(start, Math.min(start + chunkSize, pageIndices.size())));
+        }
+        pending.addAndGet(chunks.size());
+        new SourceChunks(source, sourceIndex, chunks).submitNext();
+    }
+
+    /**
+     * بخش‌های یک سند یکی‌یکی اجرا می‌شوند تا چند نخ صف روی قفل همان سند منتظر نمانند و
+     * کارهای دیگر (با اولویت بالاتر) نخ آزاد پیدا کنند. بخش بعدی پیش از پایان بخش فعلی به صف
+     * اضافه می‌شود تا گروه کارهای درخواست خالی نشود و cancel به آن برسد.
+     */
+    private final class SourceChunks {
+        private final PdfSource source;
+        private final int sourceIndex;
+        private final List<List<Integer>> chunks;
+        private final AtomicInteger next = new AtomicInteger();
+
+        SourceChunks(PdfSource source, int sourceIndex, List<List<Integer>> chunks) {
+            this.source = source;
+            this.sourceIndex = sourceIndex;
+            this.chunks = chunks;
+        }
+
+        void submitNext() {
+            int index = next.getAndIncrement();
+            if (index >= chunks.size()) {
+                return;
+            }
+            final List<Integer> chunk = chunks.get(index);
+            WorkerPool.getInstance().submit(new WorkerPool.Job(requestId, priority,
+                    new PartResult(sourceIndex, chunk, this), "ThumbnailError", "Failed to generate thumbnails.") {
+                @Override
+                protected Object execute() throws IOException {
+                    try {
+                        return renderChunk(source, chunk, this);
+                    } finally {
+                        if (!isCancelled()) {
+                            submitNext();
+                        }
+                    }
+                }
+            });
+        }
+
+        /** پس از لغو، بخش‌های ساخته‌نشده بدون اجرا پایان‌یافته شمرده می‌شوند. */
+        void skipRest() {
+            int index = next.getAndSet(chunks.size());
+            if (index < chunks.size()) {
+                pending.addAndGet(index - chunks.size());
+            }
+        }
+    }
+
+    /** صفحات موجود در کش دیسک بدون بارگذاری سند برگردانده می‌شوند؛ ترتیب نتیجه همان ترتیب بخش است. */
+    private List<Map<String, Object>> renderChunk(PdfSource source, List<Integer> chunk, WorkerPool.Job job)
+            throws IOException {
+        List<Map<String, Object>> thumbnails = new ArrayList<>();
+        boolean missing = false;
+        for (int page : chunk) {
+            Map<String, Object> cached = ThumbnailRenderer.lookup(source, page, options, output);
+            thumbnails.add(cached);
+            missing |= cached == null;
+        }
+        if (!missing) {
+            return thumbnails;
+        }
+        try (DocumentCache.Lease lease = DocumentCache.getInstance().acquire(source)) {
+            PDDocument document = lease.getDocument();
+            int pageCount = document.getNumberOfPages();
+            for (int i = 0; i < chunk.size(); i++) {
+                job.checkCancelled();
+                int page = chunk.get(i);
+                if (thumbnails.get(i) != null || page >= pageCount) {
+                    continue;
+                }
+                // درخواست‌های دیگر ممکن است همزمان از همین سند کش‌شده استفاده کنند
+                synchronized (document) {
+                    thumbnails.set(i, ThumbnailRenderer.render(document, source, page, options, output));
+                }
+            }
+        }
+        // صفحات خارج از محدوده سند حذف می‌شوند
+        thumbnails.removeAll(Collections.singleton(null));
+        return thumbnails;
+    }
+
+    /** فقط وقتی تعداد صفحات لازم است که همه صفحات یا بازه‌ای بدون انتها خواسته شده باشد. */
+    @SuppressWarnings("unchecked")
+    static boolean needsPageCount(List<Object> pages) {
+        if (pages == null) {
+            return true;
+        }
+        for (Object item : pages) {
+            if (item instanceof Map && ((Map<String, Object>) item).get("end") == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** صفحات به صورت عدد یا بازه {start, end} (شامل هر دو سر) داده می‌شوند؛ null یعنی همه صفحات. */
+    @SuppressWarnings("unchecked")
+    static List<Integer> resolvePages(List<Object> pages, int pageCount) {
+        List<Integer> indices = new ArrayList<>();
+        if (pages == null) {
+            for (int i = 0; i < pageCount; i++) {
+                indices.add(i);
+            }
+            return indices;
+        }
+        for (Object item : pages) {
+            if (item instanceof Number) {
+                addPage(indices, ((Number) item).intValue(), pageCount);
+            } else if (item instanceof Map) {
+                Map<String, Object> range = (Map<String, Object>) item;
+                int start = range.get("start") != null ? ((Number) range.get("start")).intValue() : 0;
+                int end = range.get("end") != null ? ((Number) range.get("end")).intValue() : pageCount - 1;
+                for (int i = start; i <= end; i++) {
+                    addPage(indices, i, pageCount);
+                }
+            }
+        }
+        return indices;
+    }
+
+    private static void addPage(List<Integer> indices, int page, int pageCount) {
+        if (page >= 0 && page < pageCount) {
+            indices.add(page);
+        }
+    }
+
+    private void partFinished() {
+        if (pending.decrementAndGet() > 0) {
+            return;
+        }
+        if (cancelled) {
+            result.error("Cancelled", "Request was cancelled.", requestId);
+            return;
+        }
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("requestId", requestId);
+        summary.put("count", rendered.get());
+        summary.put("failed", failed.get());
+        events.emit(requestId, "done", new HashMap<>(summary));
+        result.success(summary);
+    }
+
+    /** نتیجه هر کار جزئی را به رویداد تبدیل می‌کند؛ روی نخ اصلی فراخوانی می‌شود. */
+    private final class PartResult implements Result {
+        private final int sourceIndex;
+        private final List<Integer> chunk;
+        private final SourceChunks chunks;
+
+        PartResult(int sourceIndex, List<Integer> chunk, SourceChunks chunks) {
+            this.sourceIndex = sourceIndex;
+            this.chunk = chunk;
+            this.chunks = chunks;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void success(Object o) {
+            if (o instanceof List) {
+                List<Map<String, Object>> thumbnails = (List<Map<String, Object>>) o;
+                rendered.addAndGet(thumbnails.size());
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("sourceIndex", sourceIndex);
+                payload.put("thumbnails", thumbnails);
+                events.emit(requestId, "thumbnails", payload);
+            }
+            partFinished();
+        }
+
+        @Override
+        public void error(String code, String message, Object details) {
+            if ("Cancelled".equals(code)) {
+                cancelled = true;
+                // کار لغوشده (حتی اگر پیش از اجرا از صف حذف شده باشد) بخش بعدی را نساخته است
+                if (chunks != null) {
+                    chunks.skipRest();
+                }
+            } else {
+                failed.addAndGet(chunk != null ? chunk.size() : 1);
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("sourceIndex", sourceIndex);
+                payload.put("pages", chunk);
+                payload.put("error", details != null ? details.toString() : message);
+                events.emit(requestId, "error", payload);
+            }
+            partFinished();
+        }
+
+        @Override
+        public void notImplemented() {
+            partFinished();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * کش دائمی تصاویر بندانگشتی روی دیسک در پوشه کش برنامه.
+ * کلید هر فایل هش هویت منبع، شماره صفحه و تنظیمات رندر است، پس جست‌وجو بدون
+ * بارگذاری PDFBox انجام می‌شود. نوشتن‌ها اتمیک‌اند و حجم کل با سیاست LRU
+ * (بر اساس زمان آخرین استفاده) محدود می‌شود. فایل‌های موقت نوشتن‌های در حال انجام
+ * جزو کش شمرده و حذف نمی‌شوند، مگر آنکه از یک اجرای قطع‌شده باقی مانده باشند.
+ */
+final class ThumbnailDiskCache {
+    static final long DEFAULT_MAX_BYTES = 50L * 1024 * 1024;
+
+    private static final String DIRECTORY = "pdfview_thumbnails";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // فایل موقت قدیمی‌تر از این از نوشتنی قطع‌شده مانده است
+    private static final long STALE_TEMP_MILLIS = 10 * 60 * 1000;
+    private static final FileFilter CACHED_FILES = new FileFilter() {
+        @Override
+        public boolean accept(File file) {
+            return file.isFile() && !file.getName().endsWith(TEMP_SUFFIX);
+        }
+    };
+
+    private static ThumbnailDiskCache instance;
+
+    private final File directory;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private long bytes = -1;
+    private long hits;
+    private long misses;
+
+    ThumbnailDiskCache(File directory) {
+        this.directory = directory;
+    }
+
+    static synchronized ThumbnailDiskCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailDiskCache(new File(context.getCacheDir(), DIRECTORY));
+        }
+        return instance;
+    }
+
+    static String key(PdfSource source, int page, ThumbnailRenderer.Options options) {
+        String identity = source.key() + "|" + page + "|" + options.cacheKey();
+        return PdfSource.sha256Hex(identity.getBytes(Charset.forName("UTF-8")));
+    }
+
+    /** فایل کش‌شده را برمی‌گرداند و زمان استفاده آن را به‌روز می‌کند؛ در نبود آن null. */
+    synchronized File get(String key, String extension) {
+        File file = new File(directory, key + "." + extension);
+        if (!file.isFile()) {
+            misses++;
+            return null;
+        }
+        hits++;
+        //noinspection ResultOfMethodCallIgnored
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /** داده در یک فایل موقت نوشته و سپس با تغییر نام جایگزین می‌شود تا فایل نیمه‌کاره دیده نشود. */
+    File put(String key, String extension, byte[] data) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = new File(directory, key + "." + extension);
+        File temp = File.createTempFile(key, TEMP_SUFFIX, directory);
+        try (OutputStream stream = new FileOutputStream(temp)) {
+            stream.write(data);
+        }
+        synchronized (this) {
+            long previous = file.length();
+            if (!temp.renameTo(file)) {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+                throw new IOException("Cannot write " + file);
+            }
+            if (bytes < 0) {
+                measure();
+            } else {
+                bytes += file.length() - previous;
+            }
+            // حجم کل نگه داشته می‌شود و پوشه فقط وقتی از سقف بگذرد فهرست می‌شود
+            if (bytes > maxBytes) {
+                trim(maxBytes);
+            }
+        }
+        return file;
+    }
+
+    synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        trim(this.maxBytes);
+    }
+
+    /** قدیمی‌ترین فایل‌ها را تا رسیدن حجم کل به targetBytes حذف می‌کند. */
+    synchronized void trim(long targetBytes) {
+        File[] files = measure();
+        if (bytes <= targetBytes) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(a.lastModified(), b.lastModified());
+            }
+        });
+        for (File file : files) {
+            if (bytes <= targetBytes) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                bytes -= length;
+            }
+        }
+    }
+
+    /**
+     * فایل‌های کش را فهرست می‌کند. حجم کل فقط بار اول از روی فایل‌ها محاسبه و سپس با هر
+     * نوشتن و حذف به‌روز می‌شود؛ فایل‌های موقت مانده از اجرای قبلی همان بار حذف می‌شوند.
+     */
+    private File[] measure() {
+        File[] files = directory.listFiles(CACHED_FILES);
+        if (files == null) {
+            bytes = 0;
+            return new File[0];
+        }
+        if (bytes < 0) {
+            bytes = 0;
+            for (File file : files) {
+                bytes += file.length();
+            }
+            deleteStaleTempFiles();
+        }
+        return files;
+    }
+
+    private void deleteStaleTempFiles() {
+        File[] temps = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().endsWith(TEMP_SUFFIX)
+                        && file.lastModified() < System.currentTimeMillis() - STALE_TEMP_MILLIS;
+            }
+        });
+        if (temps != null) {
+            for (File temp : temps) {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        trim(0);
+    }
+
+    /** بدون حذف فایل؛ روی صف کاری فراخوانی شود چون پوشه را فهرست می‌کند. */
+    synchronized Map<String, Object> getStats() {
+        File[] files = measure();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("files", files.length);
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+}
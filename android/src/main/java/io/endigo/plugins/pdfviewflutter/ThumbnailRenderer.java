@@ -0,0 +1,200 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
+import com.tom_roush.pdfbox.rendering.PDFRenderer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodCall;
+
+/**
+ * رندر یک صفحه به تصویر بندانگشتی، مشترک بین generateThumbnail و generateThumbnails.
+ * صفحه مستقیماً در ابعاد نهایی روی یک بیت‌مپ از {@link BitmapPool} رندر می‌شود.
+ */
+final class ThumbnailRenderer {
+    private ThumbnailRenderer() {
+    }
+
+    /** تنظیمات رندر: اندازه هدف یا DPI، پیکربندی بیت‌مپ و قالب خروجی. */
+    static final class Options {
+        final Integer width;
+        final Integer height;
+        final Float dpi;
+        final Bitmap.Config config;
+        final ImageEncoding encoding;
+        // در صورت فعال بودن، نتیجه‌ها در کش دیسک ذخیره و از آن خوانده می‌شوند
+        final ThumbnailDiskCache diskCache;
+
+        Options(Integer width, Integer height, Float dpi, Bitmap.Config config, ImageEncoding encoding,
+                ThumbnailDiskCache diskCache) {
+            this.width = width;
+            this.height = height;
+            this.dpi = dpi;
+            this.config = config;
+            this.encoding = encoding;
+            this.diskCache = diskCache;
+        }
+
+        /**
+         * آرگومان‌های width، height، dpi، bitmapConfig (ARGB_8888 یا RGB_565)، format، quality و diskCache.
+         * پیش‌فرض‌ها همان رفتار قبلی‌اند: مقیاس 1، ARGB_8888، PNG و بدون کش دیسک.
+         */
+        static Options from(MethodCall call, Context context) {
+            Number dpi = call.argument("dpi");
+            Integer quality = call.argument("quality");
+            String format = call.argument("format");
+            String bitmapConfig = call.argument("bitmapConfig");
+            return new Options(
+                    call.argument("width"),
+                    call.argument("height"),
+                    dpi != null ? dpi.floatValue() : null,
+                    "RGB_565".equals(bitmapConfig) ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888,
+                    ImageEncoding.of(format != null ? format : "png", quality != null ? quality : 100, 0),
+                    Boolean.TRUE.equals(call.argument("diskCache")) ? ThumbnailDiskCache.getInstance(context) : null);
+        }
+
+        /** همه پارامترهایی که روی پیکسل‌های خروجی اثر دارند. */
+        String cacheKey() {
+            return width + "x" + height + "@" + dpi + "|" + config + "|" + encoding.extension + ":" + encoding.quality;
+        }
+    }
+
+    /**
+     * نتیجه کش‌شده روی دیسک را بدون بارگذاری سند برمی‌گرداند؛ ابعاد فقط از سرآیند فایل خوانده می‌شود.
+     * اگر کش دیسک فعال نباشد یا صفحه در آن نباشد null برمی‌گرداند.
+     */
+    static Map<String, Object> lookup(PdfSource source, int pageIndex, Options options, ToolOutput output)
+            throws IOException {
+        // تصویر صفحات اسناد رمزدار رمزنشده روی دیسک نگه داشته نمی‌شود
+        if (options.diskCache == null || source.isProtected()) {
+            return null;
+        }
+        File file = options.diskCache.get(ThumbnailDiskCache.key(source, pageIndex, options), options.encoding.extension);
+        if (file == null) {
+            return null;
+        }
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+
+        Map<String, Object> imageData = new HashMap<>();
+        output.putFile(imageData, file);
+        imageData.put("width", bounds.outWidth);
+        imageData.put("height", bounds.outHeight);
+        imageData.put("page", pageIndex);
+        imageData.put("format", options.encoding.extension);
+        imageData.put("cached", true);
+        return imageData;
+    }
+
+    /**
+     * فراخواننده باید روی document همگام شده باشد. بیت‌مپ از بودجه حافظه رزرو می‌شود؛ اگر جا
+     * نباشد، تصویر با نصف ابعاد ساخته می‌شود (degraded). کار هرگز منتظر بودجه نمی‌ماند، چون
+     * قفل سند و سهم خود سند را در اختیار دارد و انتظار می‌تواند کارگرها را قفل کند.
+     */
+    static Map<String, Object> render(PDDocument document, PdfSource source, int pageIndex, Options options,
+                                      ToolOutput output) throws IOException {
+        PDPage page = document.getPage(pageIndex);
+        float pageWidth = getPageWidth(page);
+        float pageHeight = getPageHeight(page);
+        float scale = getScale(pageWidth, pageHeight, options);
+        int width = Math.max(1, (int) Math.floor(pageWidth * scale));
+        int height = Math.max(1, (int) Math.floor(pageHeight * scale));
+        int bytesPerPixel = options.config == Bitmap.Config.RGB_565 ? 2 : 4;
+
+        MemoryBudget budget = MemoryBudget.getInstance();
+        MemoryBudget.Reservation reservation = budget.tryReserve(MemoryBudget.THUMBNAILS,
+                (long) width * height * bytesPerPixel);
+        boolean degraded = reservation == null;
+        if (degraded) {
+            budget.recordDegraded(MemoryBudget.THUMBNAILS);
+            scale /= 2;
+            width = Math.max(1, (int) Math.floor(pageWidth * scale));
+            height = Math.max(1, (int) Math.floor(pageHeight * scale));
+            long bytes = (long) width * height * bytesPerPixel;
+            reservation = budget.tryReserve(MemoryBudget.THUMBNAILS, bytes);
+            if (reservation == null && DocumentCache.getInstance().evictForBudget(bytes)) {
+                // فقط به اندازه لازم اسناد بیکار تخلیه شده‌اند؛ سند همین کار در حال استفاده است و می‌ماند
+                reservation = budget.tryReserve(MemoryBudget.THUMBNAILS, bytes);
+            }
+            if (reservation == null) {
+                // تصویر نصف‌شده کوچک است؛ بدون انتظار ساخته و مصرف آن ثبت می‌شود
+                reservation = budget.reserveAnyway(MemoryBudget.THUMBNAILS, bytes);
+            }
+        }
+
+        BitmapPool pool = BitmapPool.getInstance();
+        Bitmap bitmap = null;
+        byte[] byteArray;
+        try {
+            bitmap = pool.acquire(width, height, options.config);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawColor(Color.WHITE);
+            Paint paint = new Paint();
+            paint.setAntiAlias(true);
+            new PDFRenderer(document).renderPageToGraphics(pageIndex, paint, canvas, scale);
+            byteArray = options.encoding.encode(bitmap);
+        } finally {
+            if (bitmap != null) {
+                pool.release(bitmap);
+            }
+            reservation.close();
+        }
+
+        Map<String, Object> imageData = new HashMap<>();
+        // تصویر کم‌کیفیت با کلید ابعاد اصلی در کش دیسک ذخیره نمی‌شود
+        if (options.diskCache != null && !source.isProtected() && !degraded) {
+            File file = options.diskCache.put(ThumbnailDiskCache.key(source, pageIndex, options),
+                    options.encoding.extension, byteArray);
+            output.putFile(imageData, file);
+        } else {
+            output.put(imageData, byteArray, options.encoding.extension);
+        }
+        imageData.put("width", width);
+        imageData.put("height", height);
+        imageData.put("page", pageIndex);
+        imageData.put("format", options.encoding.extension);
+        if (degraded) {
+            imageData.put("degraded", true);
+        }
+        return imageData;
+    }
+
+    /**
+     * اگر width یا height داده شود تصویر در آن ابعاد جا می‌شود، در غیر این صورت از dpi
+     * (نسبت به 72 نقطه در اینچ PDF) و در نبود آن از مقیاس 1 استفاده می‌شود.
+     */
+    static float getScale(float pageWidth, float pageHeight, Options options) {
+        if (options.width == null && options.height == null) {
+            return options.dpi != null ? options.dpi / 72f : 1;
+        }
+        float scaleX = options.width != null ? options.width / pageWidth : Float.MAX_VALUE;
+        float scaleY = options.height != null ? options.height / pageHeight : Float.MAX_VALUE;
+        return Math.min(scaleX, scaleY);
+    }
+
+    private static float getPageWidth(PDPage page) {
+        PDRectangle box = page.getCropBox();
+        return page.getRotation() % 180 != 0 ? box.getHeight() : box.getWidth();
+    }
+
+    private static float getPageHeight(PDPage page) {
+        PDRectangle box = page.getCropBox();
+        return page.getRotation() % 180 != 0 ? box.getWidth() : box.getHeight();
+    }
+}
@@ -0,0 +1,44 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.Map;
+
+import io.flutter.plugin.common.EventChannel;
+
+/**
+ * جریان رویدادهای مشترک کانال ابزارها. نتایج تدریجی کارهای طولانی
+ * با فیلد requestId روی همین جریان فرستاده می‌شوند و سمت Dart آن‌ها را جدا می‌کند.
+ */
+final class ToolEvents implements EventChannel.StreamHandler {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private EventChannel.EventSink sink;
+
+    @Override
+    public void onListen(Object arguments, EventChannel.EventSink events) {
+        sink = events;
+    }
+
+    @Override
+    public void onCancel(Object arguments) {
+        sink = null;
+    }
+
+    /** از هر نخی قابل فراخوانی است؛ ارسال روی نخ اصلی انجام می‌شود. */
+    void emit(final String requestId, final String event, final Map<String, Object> payload) {
+        payload.put("requestId", requestId);
+        payload.put("event", event);
+        // روی نخ اصلی مستقیماً ارسال می‌شود تا ترتیب نسبت به نتیجه فراخوانی حفظ شود
+        Runnable send = () -> {
+            if (sink != null) {
+                sink.success(payload);
+            }
+        };
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            send.run();
+        } else {
+            handler.post(send);
+        }
+    }
+}
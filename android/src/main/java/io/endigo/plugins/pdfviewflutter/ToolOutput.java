@@ -0,0 +1,142 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.content.Context;
+import android.util.Base64;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodCall;
+
+/**
+ * شکل خروجی داده‌های تصویری ابزارها:
+ * base64 (پیش‌فرض و سازگار با نسخه‌های قبل)، bytes (Uint8List بدون کدگذاری)
+ * یا file (نوشتن در پوشه کش برنامه و برگرداندن فقط مسیر).
+ * فایل‌های خروجی پس از MAX_AGE_MILLIS حذف می‌شوند و حجم کل پوشه به MAX_BYTES محدود است
+ * (قدیمی‌ترین‌ها اول)؛ برنامه باید فایلی را که نگه می‌دارد به جای دیگری منتقل کند.
+ */
+final class ToolOutput {
+    static final String MODE_BASE64 = "base64";
+    static final String MODE_BYTES = "bytes";
+    static final String MODE_FILE = "file";
+
+    static final ToolOutput BASE64 = new ToolOutput(MODE_BASE64, null);
+
+    static final long MAX_AGE_MILLIS = 24L * 60 * 60 * 1000;
+    static final long MAX_BYTES = 100L * 1024 * 1024;
+
+    private static final String OUTPUT_DIRECTORY = "pdfview_tools";
+    // پوشه در هر نوشتن فهرست نمی‌شود؛ پاک‌سازی حداکثر یک بار در این فاصله
+    private static final long CLEANUP_INTERVAL_MILLIS = 60 * 1000;
+    private static long lastCleanup;
+
+    final String mode;
+    private final File directory;
+
+    private ToolOutput(String mode, File directory) {
+        this.mode = mode;
+        this.directory = directory;
+    }
+
+    static ToolOutput from(MethodCall call, Context context) {
+        String mode = call.argument("output");
+        if (MODE_BYTES.equals(mode)) {
+            return new ToolOutput(MODE_BYTES, null);
+        } else if (MODE_FILE.equals(mode)) {
+            return new ToolOutput(MODE_FILE, directory(context));
+        }
+        return BASE64;
+    }
+
+    /** داده را بسته به حالت خروجی با کلید data، bytes یا path در نقشه قرار می‌دهد. */
+    void put(Map<String, Object> target, byte[] data, String extension) throws IOException {
+        switch (mode) {
+            case MODE_BYTES:
+                target.put("bytes", data);
+                break;
+            case MODE_FILE:
+                target.put("path", write(data, extension).getAbsolutePath());
+                break;
+            default:
+                target.put("data", Base64.encodeToString(data, Base64.NO_WRAP));
+                break;
+        }
+    }
+
+    /**
+     * داده‌ای که از قبل در یک فایل (مثلاً کش دیسک) قرار دارد؛ در حالت file همان مسیر
+     * بدون کپی برگردانده می‌شود و فراخواننده نباید آن را حذف کند.
+     */
+    void putFile(Map<String, Object> target, File file) throws IOException {
+        if (MODE_FILE.equals(mode)) {
+            target.put("path", file.getAbsolutePath());
+            return;
+        }
+        byte[] data = new byte[(int) file.length()];
+        try (DataInputStream stream = new DataInputStream(new FileInputStream(file))) {
+            stream.readFully(data);
+        }
+        put(target, data, null);
+    }
+
+    private File write(byte[] data, String extension) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File file = File.createTempFile("pdf_", "." + extension, directory);
+        try (OutputStream stream = new FileOutputStream(file)) {
+            stream.write(data);
+        }
+        cleanupIfDue(directory);
+        return file;
+    }
+
+    static File directory(Context context) {
+        return new File(context.getCacheDir(), OUTPUT_DIRECTORY);
+    }
+
+    private static void cleanupIfDue(File directory) {
+        synchronized (ToolOutput.class) {
+            long now = System.currentTimeMillis();
+            if (now - lastCleanup < CLEANUP_INTERVAL_MILLIS) {
+                return;
+            }
+            lastCleanup = now;
+        }
+        cleanup(directory, MAX_AGE_MILLIS, MAX_BYTES);
+    }
+
+    /**
+     * فایل‌های قدیمی‌تر از maxAgeMillis و سپس قدیمی‌ترین فایل‌ها تا رسیدن حجم کل به maxBytes
+     * حذف می‌شوند؛ با مقادیر صفر همه فایل‌ها. روی صف کاری فراخوانی شود.
+     */
+    static synchronized void cleanup(File directory, long maxAgeMillis, long maxBytes) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                return Long.compare(b.lastModified(), a.lastModified());
+            }
+        });
+        // از جدیدترین به قدیمی‌ترین؛ فایلی که از سقف سن یا حجم بیرون بزند حذف می‌شود
+        long now = System.currentTimeMillis();
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+            if (now - file.lastModified() >= maxAgeMillis || total > maxBytes) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+}
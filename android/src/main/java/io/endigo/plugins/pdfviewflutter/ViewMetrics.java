@@ -0,0 +1,266 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.graphics.Bitmap;
+
+import com.github.barteksc.pdfviewer.model.PagePart;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * سنجه‌های اختیاری یک نمایشگر: زمان بارگذاری و اولین رندر، تأخیر رندر هر صفحه،
+ * وضعیت کش بخش‌ها و حافظه بیت‌مپ‌ها، تأخیر فراخوانی متدها و تعداد رویدادهای ارسالی.
+ * فقط وقتی ساخته می‌شود که سنجه‌ها فعال باشند؛ در غیر این صورت هزینه‌ای ندارد.
+ * هنگام رسم فقط شمارنده‌ها به‌روز می‌شوند و کش نمایشگر فقط هنگام خواندن سنجه‌ها نمونه‌برداری
+ * می‌شود. همه متدها روی نخ اصلی فراخوانی می‌شوند.
+ */
+final class ViewMetrics {
+    private static final int LATENCY_SAMPLES = 256;
+
+    /** شمارنده تعداد، مجموع و بیشینه مدت. */
+    private static final class Timing {
+        long count;
+        long totalNanos;
+        long maxNanos;
+
+        void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("count", count);
+            map.put("meanMs", count > 0 ? totalNanos / 1e6 / count : 0.0);
+            map.put("maxMs", maxNanos / 1e6);
+            return map;
+        }
+    }
+
+    private final ObservedPDFView pdfView;
+    private long startNanos = System.nanoTime();
+    private long loadNanos = -1;
+    private long firstRenderNanos = -1;
+
+    // صفحاتی که نمایش داده شده‌اند ولی هنوز بخشی از آن‌ها رندر نشده است، با زمان اولین نمایش
+    private final Map<Integer, Long> pendingPages = new HashMap<>();
+    private final Set<Integer> renderedPages = new HashSet<>();
+    private final Set<Integer> visiblePages = new HashSet<>();
+    private final Timing pageRender = new Timing();
+    private final long[] pageRenderSamples = new long[LATENCY_SAMPLES];
+    private int lastVisiblePages;
+    // رسم صفحاتی که بخش رندرشده داشتند یا خالی رسم شدند؛ معیار اثر کش و پیش‌بارگذاری
+    private long drawHits;
+    private long drawMisses;
+    // بخش‌های رندرشده از شروع بارگذاری؛ خارج‌شده‌ها از اختلاف آن با اندازه کش به دست می‌آیند
+    private long partsRendered;
+    private long partsRenderedAtReset;
+    private long partsEvictedAtReset;
+
+    private final Map<String, Timing> methods = new HashMap<>();
+    private final Map<String, Long> events = new HashMap<>();
+
+    ViewMetrics(ObservedPDFView pdfView) {
+        this.pdfView = pdfView;
+        pdfView.setPartListener(this::onPartRendered);
+    }
+
+    /** برای بارگذاری دوباره سند (مثلاً پس از نوشتن فایل موقت) زمان شروع از نو تنظیم می‌شود. */
+    void onLoadStarted() {
+        startNanos = System.nanoTime();
+        loadNanos = -1;
+        firstRenderNanos = -1;
+        pendingPages.clear();
+        renderedPages.clear();
+        // کش نمایشگر با بارگذاری دوباره خالی می‌شود
+        partsRendered = 0;
+        partsRenderedAtReset = 0;
+        partsEvictedAtReset = 0;
+    }
+
+    void onLoaded() {
+        loadNanos = System.nanoTime() - startNanos;
+    }
+
+    void onRendered() {
+        if (firstRenderNanos < 0) {
+            firstRenderNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    /** برای هر صفحه رسم‌شده فراخوانی می‌شود؛ صفحه‌ای که هنوز بخشی نداشته باشد منتظر می‌ماند. */
+    void onPageDrawn(int page) {
+        visiblePages.add(page);
+        if (renderedPages.contains(page)) {
+            drawHits++;
+            return;
+        }
+        drawMisses++;
+        if (!pendingPages.containsKey(page)) {
+            pendingPages.put(page, System.nanoTime());
+        }
+    }
+
+    /** پایان یک فریم؛ صفحات دیده‌شده در این فریم به عنوان صفحات قابل مشاهده ثبت می‌شوند. */
+    void onFrameDrawn() {
+        lastVisiblePages = visiblePages.size();
+        visiblePages.clear();
+    }
+
+    /** با رسیدن اولین بخش یک صفحه، تأخیر رندر آن از اولین نمایش ثبت می‌شود. */
+    private void onPartRendered(PagePart part) {
+        if (part.isThumbnail()) {
+            return;
+        }
+        partsRendered++;
+        int page = part.getPage();
+        if (!renderedPages.add(page)) {
+            return;
+        }
+        Long since = pendingPages.remove(page);
+        if (since != null) {
+            long nanos = System.nanoTime() - since;
+            pageRenderSamples[(int) (pageRender.count % LATENCY_SAMPLES)] = nanos;
+            pageRender.add(nanos);
+        }
+    }
+
+    /** صفحاتی که بخش‌هایشان از کش خارج شده‌اند دوباره سنجیده می‌شوند. */
+    private void forgetEvictedPages(List<PagePart> parts) {
+        Set<Integer> cached = new HashSet<>();
+        for (PagePart part : parts) {
+            cached.add(part.getPage());
+        }
+        renderedPages.retainAll(cached);
+    }
+
+    void onEvent(String method) {
+        Long count = events.get(method);
+        events.put(method, count != null ? count + 1 : 1);
+    }
+
+    /** Result را طوری می‌پوشاند که زمان از دریافت فراخوانی تا ارسال پاسخ ثبت شود. */
+    Result timed(final String method, final Result result) {
+        final long start = System.nanoTime();
+        return new Result() {
+            @Override
+            public void success(Object o) {
+                record(method, start);
+                result.success(o);
+            }
+
+            @Override
+            public void error(String code, String message, Object details) {
+                record(method, start);
+                result.error(code, message, details);
+            }
+
+            @Override
+            public void notImplemented() {
+                record(method, start);
+                result.notImplemented();
+            }
+        };
+    }
+
+    private void record(String method, long start) {
+        Timing timing = methods.get(method);
+        if (timing == null) {
+            timing = new Timing();
+            methods.put(method, timing);
+        }
+        timing.add(System.nanoTime() - start);
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("loadMs", loadNanos >= 0 ? loadNanos / 1e6 : null);
+        metrics.put("timeToFirstRenderMs", firstRenderNanos >= 0 ? firstRenderNanos / 1e6 : null);
+
+        Map<String, Object> pages = pageRender.toMap();
+        pages.put("p95Ms", percentile95());
+        pages.put("pending", pendingPages.size());
+        metrics.put("pageRender", pages);
+        metrics.put("visiblePages", lastVisiblePages);
+
+        Map<String, Object> cache = new HashMap<>();
+        long draws = drawHits + drawMisses;
+        cache.put("drawHits", drawHits);
+        cache.put("drawMisses", drawMisses);
+        cache.put("hitRate", draws > 0 ? (double) drawHits / draws : null);
+        cache.put("partsRendered", partsRendered - partsRenderedAtReset);
+        metrics.put("cache", cache);
+
+        List<PagePart> parts = RenderCache.pageParts(pdfView);
+        List<PagePart> thumbnails = RenderCache.thumbnails(pdfView);
+        if (parts != null && thumbnails != null) {
+            forgetEvictedPages(parts);
+            cache.put("partsEvicted", partsEvicted(parts.size()) - partsEvictedAtReset);
+            metrics.put("cachedParts", parts.size());
+            metrics.put("cachedThumbnails", thumbnails.size());
+            metrics.put("bitmapBytes", bitmapBytes(parts) + bitmapBytes(thumbnails));
+        } else {
+            // کش نمایشگر در این نسخه کتابخانه در دسترس نیست
+            cache.put("partsEvicted", null);
+            metrics.put("cachedParts", null);
+            metrics.put("cachedThumbnails", null);
+            metrics.put("bitmapBytes", null);
+        }
+
+        Map<String, Object> methodMetrics = new HashMap<>();
+        for (Map.Entry<String, Timing> entry : methods.entrySet()) {
+            methodMetrics.put(entry.getKey(), entry.getValue().toMap());
+        }
+        metrics.put("methods", methodMetrics);
+        metrics.put("events", new HashMap<>(events));
+        return metrics;
+    }
+
+    /** شمارنده‌ها صفر می‌شوند؛ زمان بارگذاری و اولین رندر حفظ می‌شود. */
+    void reset() {
+        pageRender.count = 0;
+        pageRender.totalNanos = 0;
+        pageRender.maxNanos = 0;
+        drawHits = 0;
+        drawMisses = 0;
+        partsRenderedAtReset = partsRendered;
+        List<PagePart> parts = RenderCache.pageParts(pdfView);
+        partsEvictedAtReset = parts != null ? partsEvicted(parts.size()) : 0;
+        methods.clear();
+        events.clear();
+    }
+
+    private double percentile95() {
+        int size = (int) Math.min(pageRender.count, LATENCY_SAMPLES);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = new long[size];
+        System.arraycopy(pageRenderSamples, 0, sorted, 0, size);
+        Arrays.sort(sorted);
+        return sorted[Math.min(size - 1, (int) Math.ceil(size * 0.95) - 1)] / 1e6;
+    }
+
+    private static long bitmapBytes(List<PagePart> parts) {
+        long bytes = 0;
+        for (PagePart part : parts) {
+            Bitmap bitmap = part.getRenderedBitmap();
+            if (bitmap != null && !bitmap.isRecycled()) {
+                bytes += bitmap.getAllocationByteCount();
+            }
+        }
+        return bytes;
+    }
+
+    /** بخشی که رندر شده و دیگر در کش نیست خارج شده است؛ جایگزینی بخش تکراری هم خروج حساب می‌شود. */
+    private long partsEvicted(int cachedParts) {
+        return Math.max(0, partsRendered - cachedParts);
+    }
+}
@@ -0,0 +1,219 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * صف کاری مشترک و محدود برای کارهای سنگین ابزارها (استخراج تصویر، تصویر بندانگشتی).
+ * تعداد نخ‌ها بر اساس هسته‌های پردازنده محدود است و کارها با اولویت و به ترتیب ورود اجرا می‌شوند.
+ */
+final class WorkerPool {
+    private static WorkerPool instance;
+
+    private static final Result NO_REPLY = new Result() {
+        @Override
+        public void success(Object result) {
+        }
+
+        @Override
+        public void error(String errorCode, String errorMessage, Object errorDetails) {
+        }
+
+        @Override
+        public void notImplemented() {
+        }
+    };
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, List<Job>> jobs = new ConcurrentHashMap<>();
+    // شناسه‌های لغوشده تا پایان آخرین کار گروه؛ کارهایی که بعد از cancel با همان شناسه
+    // اضافه می‌شوند (مانند بخش‌های یک درخواست دسته‌ای) از ابتدا لغوشده‌اند
+    private final Set<String> cancelledIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger generatedIds = new AtomicInteger();
+
+    private WorkerPool() {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(),
+                runnable -> new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "pdfview-worker-" + threadCount.incrementAndGet()));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    static synchronized WorkerPool getInstance() {
+        if (instance == null) {
+            instance = new WorkerPool();
+        }
+        return instance;
+    }
+
+    /**
+     * تمام کارها را لغو و نخ‌ها را متوقف می‌کند. کارهای در صف هرگز اجرا نمی‌شوند و نتیجه
+     * آن‌ها همین‌جا با Cancelled کامل می‌شود؛ کارهای در حال اجرا در اولین نقطه بررسی.
+     */
+    static synchronized void shutdown() {
+        if (instance != null) {
+            for (List<Job> group : instance.jobs.values()) {
+                for (Job job : group) {
+                    job.cancelled = true;
+                }
+            }
+            for (Runnable queued : instance.executor.shutdownNow()) {
+                ((Job) queued).postCancelled();
+            }
+            instance = null;
+        }
+    }
+
+    /**
+     * چند کار می‌توانند یک شناسه مشترک داشته باشند (مثلاً بخش‌های یک درخواست دسته‌ای)
+     * تا با یک فراخوانی cancel همه با هم لغو شوند.
+     */
+    void submit(Job job) {
+        job.sequence = sequence.incrementAndGet();
+        if (job.requestId == null) {
+            job.requestId = "job-" + generatedIds.incrementAndGet();
+        }
+        List<Job> group = jobs.get(job.requestId);
+        if (group == null) {
+            List<Job> created = new CopyOnWriteArrayList<>();
+            group = jobs.putIfAbsent(job.requestId, created);
+            if (group == null) {
+                group = created;
+            }
+        }
+        group.add(job);
+        if (cancelledIds.contains(job.requestId)) {
+            // اجرا می‌شود تا نتیجه Cancelled مثل سایر کارهای لغوشده گزارش شود
+            job.cancelled = true;
+        }
+        executor.execute(job);
+    }
+
+    /** کار پس‌زمینه‌ای که پاسخی به Dart ندارد، مانند بستن اسناد هنگام فشار حافظه. */
+    void post(final Runnable task) {
+        submit(new Job(null, 0, NO_REPLY, null, null) {
+            @Override
+            protected Object execute() {
+                task.run();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * کارهای با شناسه داده‌شده را لغو می‌کند. کار در صف هرگز شروع نمی‌شود
+     * و کار در حال اجرا در اولین نقطه بررسی (بین صفحات) متوقف می‌شود.
+     */
+    boolean cancel(String requestId) {
+        List<Job> group = jobs.get(requestId);
+        if (group == null || group.isEmpty()) {
+            return false;
+        }
+        cancelledIds.add(requestId);
+        for (Job job : group) {
+            job.cancelled = true;
+            if (executor.remove(job)) {
+                job.finish();
+                job.postCancelled();
+            }
+        }
+        return true;
+    }
+
+    abstract static class Job implements Runnable, Comparable<Job> {
+        final Handler handler = new Handler(Looper.getMainLooper());
+        final Result result;
+        final int priority;
+        private final String errorCode;
+        private final String errorMessage;
+        String requestId;
+        private long sequence;
+        private volatile boolean cancelled;
+
+        Job(String requestId, int priority, Result result, String errorCode, String errorMessage) {
+            this.requestId = requestId;
+            this.priority = priority;
+            this.result = result;
+            this.errorCode = errorCode;
+            this.errorMessage = errorMessage;
+        }
+
+        /** مقدار برگشتی به عنوان نتیجه موفق به Dart ارسال می‌شود. */
+        protected abstract Object execute() throws IOException;
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void checkCancelled() {
+            if (cancelled) {
+                throw new CancellationException(requestId);
+            }
+        }
+
+        @Override
+        public final void run() {
+            try {
+                checkCancelled();
+                final Object value = execute();
+                checkCancelled();
+                handler.post(() -> result.success(value));
+            } catch (CancellationException e) {
+                postCancelled();
+            } catch (Throwable e) {
+                // OutOfMemoryError هنگام رندر یا رمزگشایی هم باید پاسخ داده شود تا Future منتظر نماند
+                handler.post(() -> result.error(errorCode, errorMessage, e.toString()));
+            } finally {
+                finish();
+            }
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+        private void finish() {
+            WorkerPool pool = instance;
+            if (pool != null) {
+                List<Job> group = pool.jobs.get(requestId);
+                if (group != null) {
+                    group.remove(this);
+                    if (group.isEmpty() && pool.jobs.remove(requestId, group)) {
+                        // شناسه برای درخواست بعدی آزاد است
+                        pool.cancelledIds.remove(requestId);
+                    }
+                }
+            }
+        }
+
+        private void postCancelled() {
+            handler.post(() -> result.error("Cancelled", "Request was cancelled.", requestId));
+        }
+    }
+}
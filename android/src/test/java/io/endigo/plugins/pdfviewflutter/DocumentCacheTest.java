@@ -0,0 +1,124 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DocumentCacheTest {
+    /** سند کوچکی با تعداد صفحات داده‌شده؛ تعداد صفحات محتوای هر منبع را متفاوت می‌کند. */
+    private static PdfSource source(int pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < pages; i++) {
+                document.addPage(new PDPage());
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            document.save(bytes);
+            return PdfSource.of(null, bytes.toByteArray());
+        }
+    }
+
+    private static long usedBudget() {
+        return (Long) MemoryBudget.getInstance().getStats().get("usedBytes");
+    }
+
+    @Test
+    public void sameSourceIsLoadedOnceAndShared() throws IOException {
+        DocumentCache cache = new DocumentCache();
+        PdfSource source = source(2);
+        try (DocumentCache.Lease first = cache.acquire(source);
+             DocumentCache.Lease second = cache.acquire(PdfSource.of(null, source.pdfData))) {
+            assertSame(first.getDocument(), second.getDocument());
+            assertEquals(2, first.getDocument().getNumberOfPages());
+        }
+        assertEquals(1L, cache.getStats().get("misses"));
+        assertEquals(1L, cache.getStats().get("hits"));
+    }
+
+    @Test
+    public void leastRecentlyUsedUnusedDocumentIsEvicted() throws IOException {
+        DocumentCache cache = new DocumentCache();
+        cache.configure(1, null);
+        PDDocument first;
+        try (DocumentCache.Lease lease = cache.acquire(source(1))) {
+            first = lease.getDocument();
+        }
+        try (DocumentCache.Lease ignored = cache.acquire(source(2))) {
+            assertTrue(first.getDocument().isClosed());
+        }
+        assertEquals(1, cache.getStats().get("documents"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    public void documentInUseIsClosedOnlyAfterItsLastLease() throws IOException {
+        DocumentCache cache = new DocumentCache();
+        PdfSource source = source(1);
+        DocumentCache.Lease lease = cache.acquire(source);
+        DocumentCache.Lease other = cache.acquire(source);
+        cache.remove(source);
+        assertFalse(lease.getDocument().getDocument().isClosed());
+
+        lease.close();
+        lease.close();
+        assertFalse(other.getDocument().getDocument().isClosed());
+        other.close();
+        assertTrue(other.getDocument().getDocument().isClosed());
+        assertEquals(0, cache.getStats().get("documents"));
+    }
+
+    @Test
+    public void budgetIsReturnedOnEvictionAndFailedLoads() throws IOException {
+        DocumentCache cache = new DocumentCache();
+        long before = usedBudget();
+        DocumentCache.Lease lease = cache.acquire(source(1));
+        assertTrue(usedBudget() > before);
+        lease.close();
+        cache.clear();
+        assertEquals(before, usedBudget());
+
+        try {
+            cache.acquire(PdfSource.of(null, new byte[]{1, 2, 3}));
+            fail("Expected the corrupt document to fail loading");
+        } catch (IOException expected) {
+            assertEquals(before, usedBudget());
+        }
+    }
+
+    @Test
+    public void onlyAsManyIdleDocumentsAsNeededAreEvictedForBudget() throws IOException {
+        DocumentCache cache = new DocumentCache();
+        PDDocument first;
+        PDDocument second;
+        try (DocumentCache.Lease lease = cache.acquire(source(1))) {
+            first = lease.getDocument();
+        }
+        try (DocumentCache.Lease lease = cache.acquire(source(2))) {
+            second = lease.getDocument();
+        }
+        MemoryBudget budget = MemoryBudget.getInstance();
+        long max = (Long) budget.getStats().get("maxBytes");
+        budget.setMaxBytes(usedBudget());
+        try {
+            assertFalse(cache.evictForBudget(Long.MAX_VALUE));
+            assertFalse(first.getDocument().isClosed());
+
+            assertTrue(cache.evictForBudget(1));
+            assertTrue(first.getDocument().isClosed());
+            assertFalse(second.getDocument().isClosed());
+            assertEquals(1, cache.getStats().get("documents"));
+        } finally {
+            budget.setMaxBytes(max);
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.tom_roush.pdfbox.cos.COSName;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.common.PDRectangle;
+import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDDocumentOutline;
+import com.tom_roush.pdfbox.pdmodel.interactive.documentnavigation.outline.PDOutlineItem;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DocumentInfoReaderTest {
+    private static Map<String, Object> read(PDDocument document) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        document.save(bytes);
+        return DocumentInfoReader.getInstance().read(PdfSource.of(null, bytes.toByteArray()));
+    }
+
+    private static PDOutlineItem item(String title) {
+        PDOutlineItem item = new PDOutlineItem();
+        item.setTitle(title);
+        return item;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> children(Map<String, Object> entry) {
+        return (List<Map<String, Object>>) entry.get("children");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void pageSizesComeFromTheCropBox() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(new PDRectangle(600, 800));
+            page.setCropBox(new PDRectangle(50, 50, 500, 700));
+            page.setRotation(90);
+            document.addPage(page);
+
+            Map<String, Object> size = ((List<Map<String, Object>>) read(document).get("pages")).get(0);
+            assertEquals(500.0, (Double) size.get("width"), 0.01);
+            assertEquals(700.0, (Double) size.get("height"), 0.01);
+            assertEquals(90, size.get("rotation"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cyclicOutlineSiblingsAreReadOnce() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            PDDocumentOutline outline = new PDDocumentOutline();
+            document.getDocumentCatalog().setDocumentOutline(outline);
+            PDOutlineItem first = item("first");
+            PDOutlineItem second = item("second");
+            outline.addLast(first);
+            outline.addLast(second);
+            // Next آخرین آیتم دوباره به اولی اشاره می‌کند
+            second.getCOSObject().setItem(COSName.NEXT, first);
+
+            List<Map<String, Object>> items = (List<Map<String, Object>>) read(document).get("outline");
+            assertEquals(2, items.size());
+            assertEquals("first", items.get(0).get("title"));
+            assertEquals("second", items.get(1).get("title"));
+            assertNull(items.get(0).get("page"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void deepOutlineIsCutAtTheDepthLimit() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            PDDocumentOutline outline = new PDDocumentOutline();
+            document.getDocumentCatalog().setDocumentOutline(outline);
+            PDOutlineItem parent = item("0");
+            outline.addLast(parent);
+            for (int depth = 1; depth < 40; depth++) {
+                PDOutlineItem child = item(String.valueOf(depth));
+                parent.addLast(child);
+                parent = child;
+            }
+
+            List<Map<String, Object>> items = (List<Map<String, Object>>) read(document).get("outline");
+            int depth = 0;
+            while (!items.isEmpty()) {
+                depth++;
+                items = children(items.get(0));
+            }
+            assertEquals(32, depth);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventCoalescerTest {
+    /** ساعت دستی؛ کارهای زمان‌بندی‌شده با advance اجرا می‌شوند. */
+    private static final class ManualScheduler implements EventCoalescer.Scheduler {
+        long now = 1000;
+        Runnable task;
+        long dueAt;
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void postDelayed(Runnable runnable, long delayMillis) {
+            task = runnable;
+            dueAt = now + delayMillis;
+        }
+
+        @Override
+        public void remove(Runnable runnable) {
+            if (task == runnable) {
+                task = null;
+            }
+        }
+
+        void advance(long millis) {
+            now += millis;
+            if (task != null && now >= dueAt) {
+                Runnable runnable = task;
+                task = null;
+                runnable.run();
+            }
+        }
+    }
+
+    private final List<String> sent = new ArrayList<>();
+    private final ManualScheduler scheduler = new ManualScheduler();
+
+    private EventCoalescer coalescer(String mode, Long interval) {
+        return new EventCoalescer(mode, interval, (method, arguments) -> sent.add(method + ":" + arguments.get("page")),
+                scheduler);
+    }
+
+    private static Map<String, Object> page(int page) {
+        return Collections.<String, Object>singletonMap("page", page);
+    }
+
+    @Test
+    public void immediateModeSendsEveryEvent() {
+        EventCoalescer events = coalescer(null, null);
+        events.post("onPageChanged", page(1));
+        events.post("onPageChanged", page(2));
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void throttleSendsAtMostOncePerIntervalWithTheLatestValue() {
+        EventCoalescer events = coalescer(EventCoalescer.MODE_THROTTLE, 100L);
+        events.post("onPageChanged", page(1));
+        assertEquals(Collections.singletonList("onPageChanged:1"), sent);
+
+        events.post("onPageChanged", page(2));
+        events.post("onPageChanged", page(3));
+        scheduler.advance(50);
+        assertEquals(1, sent.size());
+        scheduler.advance(50);
+        assertEquals("onPageChanged:3", sent.get(1));
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void scrollEndWaitsUntilActivityStops() {
+        EventCoalescer events = coalescer(EventCoalescer.MODE_SCROLL_END, 150L);
+        events.post("onScroll", page(1));
+        scheduler.advance(100);
+        events.touch();
+        scheduler.advance(100);
+        events.post("onScroll", page(2));
+        scheduler.advance(100);
+        assertTrue(sent.isEmpty());
+        scheduler.advance(50);
+        assertEquals(Collections.singletonList("onScroll:2"), sent);
+    }
+
+    @Test
+    public void disposeFlushesPendingEventsOnlyWhenAsked() {
+        EventCoalescer events = coalescer(EventCoalescer.MODE_SCROLL_END, null);
+        events.post("onScroll", page(1));
+        events.dispose(false);
+        scheduler.advance(EventCoalescer.DEFAULT_SCROLL_END_MILLIS);
+        assertTrue(sent.isEmpty());
+
+        events = coalescer(EventCoalescer.MODE_SCROLL_END, null);
+        events.post("onScroll", page(2));
+        events.dispose(true);
+        assertEquals(Collections.singletonList("onScroll:2"), sent);
+    }
+}
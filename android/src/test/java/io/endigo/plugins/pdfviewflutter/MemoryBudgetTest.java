@@ -0,0 +1,64 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class MemoryBudgetTest {
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> consumer(MemoryBudget budget, String name) {
+        return (Map<String, Object>) ((Map<String, Object>) budget.getStats().get("consumers")).get(name);
+    }
+
+    @Test
+    public void reservationsAreLimitedByMaxBytesAndReturnedOnClose() {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setMaxBytes(100);
+
+        MemoryBudget.Reservation first = budget.tryReserve(MemoryBudget.DOCUMENTS, 60);
+        assertNotNull(first);
+        assertNull(budget.tryReserve(MemoryBudget.THUMBNAILS, 50));
+        assertEquals(40L, budget.available());
+
+        first.close();
+        first.close();
+        assertEquals(100L, budget.available());
+        assertNotNull(budget.tryReserve(MemoryBudget.THUMBNAILS, 50));
+    }
+
+    @Test
+    public void reserveAnywayIsCountedAgainstOtherConsumers() {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setMaxBytes(100);
+
+        MemoryBudget.Reservation view = budget.reserveAnyway(MemoryBudget.VIEWS, 150);
+        assertEquals(0L, budget.available());
+        assertNull(budget.tryReserve(MemoryBudget.DOCUMENTS, 1));
+        assertEquals(150L, budget.getStats().get("usedBytes"));
+
+        view.close();
+        assertEquals(0L, budget.getStats().get("usedBytes"));
+    }
+
+    @Test
+    public void statsTrackPeakReservationsAndDegradedPerConsumer() {
+        MemoryBudget budget = new MemoryBudget();
+        budget.setMaxBytes(1000);
+
+        MemoryBudget.Reservation a = budget.tryReserve(MemoryBudget.THUMBNAILS, 300);
+        MemoryBudget.Reservation b = budget.tryReserve(MemoryBudget.THUMBNAILS, 200);
+        a.close();
+        b.close();
+        budget.recordDegraded(MemoryBudget.THUMBNAILS);
+
+        Map<String, Object> thumbnails = consumer(budget, MemoryBudget.THUMBNAILS);
+        assertEquals(0L, thumbnails.get("bytes"));
+        assertEquals(500L, thumbnails.get("peakBytes"));
+        assertEquals(2L, thumbnails.get("reservations"));
+        assertEquals(1L, thumbnails.get("degraded"));
+    }
+}
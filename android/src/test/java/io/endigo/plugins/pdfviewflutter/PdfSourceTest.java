@@ -0,0 +1,79 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.pdmodel.encryption.AccessPermission;
+import com.tom_roush.pdfbox.pdmodel.encryption.InvalidPasswordException;
+import com.tom_roush.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PdfSourceTest {
+    private static final byte[] DATA = {1, 2, 3, 4};
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void emptyPasswordIsTheSameSourceAsNoPassword() {
+        PdfSource plain = PdfSource.of(null, DATA);
+        PdfSource empty = PdfSource.of(null, DATA, "");
+        assertFalse(empty.isProtected());
+        assertEquals(plain.key(), empty.key());
+    }
+
+    @Test
+    public void eachPasswordHasItsOwnKeyWithoutRevealingIt() throws IOException {
+        File file = folder.newFile("doc.pdf");
+        String plain = PdfSource.of(file.getPath(), null).key();
+        String first = PdfSource.of(file.getPath(), null, "secret").key();
+        String second = PdfSource.of(file.getPath(), null, "other").key();
+
+        assertTrue(PdfSource.of(file.getPath(), null, "secret").isProtected());
+        assertTrue(first.startsWith(plain + ":pw:"));
+        assertNotEquals(first, second);
+        assertEquals(first, PdfSource.of(file.getPath(), null, "secret").key());
+        assertFalse(first.contains("secret"));
+    }
+
+    @Test
+    public void sameContentAndPasswordShareAKey() {
+        assertEquals(PdfSource.of(null, DATA.clone(), "pw").key(), PdfSource.of(null, DATA, "pw").key());
+        assertNotEquals(PdfSource.of(null, DATA, "pw").key(), PdfSource.of(null, new byte[]{9}, "pw").key());
+    }
+
+    @Test
+    public void protectedDocumentOpensOnlyWithItsPassword() throws IOException {
+        byte[] bytes;
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            StandardProtectionPolicy policy = new StandardProtectionPolicy("owner", "user", new AccessPermission());
+            policy.setEncryptionKeyLength(128);
+            document.protect(policy);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            document.save(output);
+            bytes = output.toByteArray();
+        }
+        try (PDDocument document = PdfSource.of(null, bytes, "user").load()) {
+            assertEquals(1, document.getNumberOfPages());
+        }
+        try {
+            PdfSource.of(null, bytes, "wrong").load().close();
+            fail("Expected the wrong password to be rejected");
+        } catch (InvalidPasswordException expected) {
+            // رمز نادرست
+        }
+    }
+}
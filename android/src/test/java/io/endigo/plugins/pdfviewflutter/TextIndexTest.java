@@ -0,0 +1,108 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TextIndexTest {
+    private static TextIndex.Page page(String... words) {
+        float[] boxes = new float[words.length * 4];
+        for (int i = 0; i < words.length; i++) {
+            boxes[i * 4] = i * 10;
+            boxes[i * 4 + 1] = 5;
+            boxes[i * 4 + 2] = i * 10 + 8;
+            boxes[i * 4 + 3] = 15;
+        }
+        String[] terms = new String[words.length];
+        for (int i = 0; i < words.length; i++) {
+            terms[i] = TextIndex.normalize(words[i]);
+        }
+        return new TextIndex.Page(200, 300, terms, boxes);
+    }
+
+    private static TextIndex sample() {
+        TextIndex index = new TextIndex("sample", 3);
+        index.addPage(0, page("Hello", "world"));
+        index.addPage(1, page("the", "quick", "brown", "fox"));
+        index.addPage(2, page("quick", "brown", "dog", "quick", "brown"));
+        return index;
+    }
+
+    @Test
+    public void tokenizeNormalizesAndSplitsOnNonWordCharacters() {
+        assertEquals(Arrays.asList("hello", "world", "42"), TextIndex.tokenize("Hello, WORLD! 42"));
+        assertTrue(TextIndex.tokenize(" ,.; ").isEmpty());
+    }
+
+    @Test
+    public void addPageAcceptsOnlyTheNextPage() {
+        TextIndex index = new TextIndex("key", 2);
+        assertFalse(index.addPage(1, page("a")));
+        assertTrue(index.addPage(0, page("a", "b")));
+        assertFalse(index.addPage(0, page("a")));
+        assertEquals(1, index.getIndexedPages());
+        assertEquals(2, index.getWordCount());
+        assertFalse(index.isComplete());
+        assertTrue(index.addPage(1, page("c")));
+        assertTrue(index.isComplete());
+    }
+
+    @Test
+    public void searchFindsConsecutivePhrasesWithBoxes() {
+        List<Map<String, Object>> hits = sample().search("Quick brown", 0);
+        assertEquals(3, hits.size());
+        assertEquals(1, hits.get(0).get("page"));
+        assertEquals(1, hits.get(0).get("wordIndex"));
+        assertEquals(2, hits.get(1).get("page"));
+        assertEquals(0, hits.get(1).get("wordIndex"));
+        assertEquals(3, hits.get(2).get("wordIndex"));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> boxes = (List<Map<String, Object>>) hits.get(0).get("boxes");
+        assertEquals(2, boxes.size());
+        assertEquals(10.0, boxes.get(0).get("left"));
+        assertEquals(28.0, boxes.get(1).get("right"));
+        assertEquals(200.0, hits.get(0).get("pageWidth"));
+    }
+
+    @Test
+    public void searchRespectsMaxResultsAndMissingWords() {
+        assertEquals(2, sample().search("quick", 2).size());
+        assertTrue(sample().search("brown fox dog", 0).isEmpty());
+        assertTrue(sample().search("missing", 0).isEmpty());
+        assertTrue(sample().search("  ", 0).isEmpty());
+    }
+
+    @Test
+    public void serializationRoundTripKeepsPagesAndSearchResults() throws IOException {
+        TextIndex index = sample();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+
+        TextIndex restored = TextIndex.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "sample");
+        assertEquals(index.totalPages, restored.totalPages);
+        assertEquals(index.getIndexedPages(), restored.getIndexedPages());
+        assertEquals(index.getWordCount(), restored.getWordCount());
+        assertEquals(index.search("quick brown", 0), restored.search("quick brown", 0));
+    }
+
+    @Test
+    public void readRejectsIndexOfAnotherDocument() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sample().write(new DataOutputStream(bytes));
+        assertNull(TextIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "other"));
+    }
+}
@@ -0,0 +1,41 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThumbnailBatchTest {
+    private static Map<String, Object> range(Integer start, Integer end) {
+        Map<String, Object> range = new HashMap<>();
+        range.put("start", start);
+        range.put("end", end);
+        return range;
+    }
+
+    @Test
+    public void nullPagesMeansEveryPage() {
+        assertEquals(Arrays.asList(0, 1, 2), ThumbnailBatch.resolvePages(null, 3));
+        assertTrue(ThumbnailBatch.needsPageCount(null));
+    }
+
+    @Test
+    public void numbersAndRangesAreResolvedInOrderAndClamped() {
+        List<Object> pages = Arrays.<Object>asList(4, range(1, 2), 9, -1, range(3, 6));
+        assertEquals(Arrays.asList(4, 1, 2, 3, 4), ThumbnailBatch.resolvePages(pages, 5));
+        assertFalse(ThumbnailBatch.needsPageCount(pages));
+    }
+
+    @Test
+    public void openEndedRangeNeedsThePageCount() {
+        List<Object> pages = Arrays.<Object>asList(range(null, 1), range(3, null));
+        assertTrue(ThumbnailBatch.needsPageCount(pages));
+        assertEquals(Arrays.asList(0, 1, 3, 4), ThumbnailBatch.resolvePages(pages, 5));
+    }
+}
@@ -0,0 +1,65 @@
+package io.endigo.plugins.pdfviewflutter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ThumbnailDiskCacheTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /** فایل با زمان استفاده داده‌شده (ثانیه) تا ترتیب LRU به دقت سیستم فایل وابسته نباشد. */
+    private static void put(ThumbnailDiskCache cache, String key, int size, long usedAtSeconds) throws IOException {
+        File file = cache.put(key, "png", new byte[size]);
+        assertTrue(file.setLastModified(usedAtSeconds * 1000));
+    }
+
+    @Test
+    public void oldestFilesAreRemovedOnlyOverTheCap() throws IOException {
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(folder.getRoot());
+        cache.setMaxBytes(100);
+        put(cache, "page-a", 40, 1000);
+        put(cache, "page-b", 40, 2000);
+        assertEquals(80L, cache.getStats().get("bytes"));
+
+        put(cache, "page-c", 40, 3000);
+        assertNull(cache.get("page-a", "png"));
+        assertNotNull(cache.get("page-b", "png"));
+        assertNotNull(cache.get("page-c", "png"));
+        assertEquals(80L, cache.getStats().get("bytes"));
+        assertEquals(2, cache.getStats().get("files"));
+    }
+
+    @Test
+    public void temporaryFilesAreNeitherCountedNorCleared() throws IOException {
+        File temp = new File(folder.getRoot(), "pending.tmp");
+        assertTrue(temp.createNewFile());
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(folder.getRoot());
+        put(cache, "page-a", 10, 1000);
+        assertEquals(1, cache.getStats().get("files"));
+
+        cache.clear();
+        assertTrue(temp.exists());
+        assertEquals(0, cache.getStats().get("files"));
+        assertEquals(0L, cache.getStats().get("bytes"));
+    }
+
+    @Test
+    public void staleTemporaryFilesAreRemovedOnFirstScan() throws IOException {
+        File stale = new File(folder.getRoot(), "stale.tmp");
+        assertTrue(stale.createNewFile());
+        assertTrue(stale.setLastModified(1000));
+        ThumbnailDiskCache cache = new ThumbnailDiskCache(folder.getRoot());
+        cache.getStats();
+        assertFalse(stale.exists());
+    }
+}
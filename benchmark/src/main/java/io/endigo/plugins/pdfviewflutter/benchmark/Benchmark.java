@@ -0,0 +1,242 @@
+package io.endigo.plugins.pdfviewflutter.benchmark;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * هر سند پیکره را با هر مسیر پردازش چند بار اجرا می‌کند و زمان بارگذاری، زمان هر صفحه،
+ * بیشینه heap و نرخ تخصیص حافظه را به صورت JSON گزارش می‌دهد.
+ *
+ * <pre>
+ * Benchmark --corpus corpus --output build/benchmark.json [--warmup 1] [--iterations 3]
+ *           [--pipelines extractImages,thumbnails] [--label 1.3.2]
+ * </pre>
+ */
+public final class Benchmark {
+    private Benchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseArgs(args);
+        File corpus = new File(options.containsKey("corpus") ? options.get("corpus") : "corpus");
+        int warmup = Integer.parseInt(options.containsKey("warmup") ? options.get("warmup") : "1");
+        int iterations = Integer.parseInt(options.containsKey("iterations") ? options.get("iterations") : "3");
+        List<String> pipelines = options.containsKey("pipelines")
+                ? Arrays.asList(options.get("pipelines").split(","))
+                : Arrays.asList(Pipelines.NAMES);
+
+        File[] files = corpus.listFiles((dir, name) -> name.endsWith(".pdf"));
+        if (files == null || files.length == 0) {
+            throw new IOException("No PDF files in " + corpus.getAbsolutePath());
+        }
+        Arrays.sort(files);
+
+        List<Object> results = new ArrayList<>();
+        for (File file : files) {
+            for (String pipeline : pipelines) {
+                System.err.println("benchmark " + file.getName() + " / " + pipeline);
+                for (int i = 0; i < warmup; i++) {
+                    run(file, pipeline);
+                }
+                List<Run> runs = new ArrayList<>();
+                for (int i = 0; i < iterations; i++) {
+                    runs.add(run(file, pipeline));
+                }
+                results.add(report(file, pipeline, runs));
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.get("label"));
+        report.put("pdfbox", org.apache.pdfbox.util.Version.getVersion());
+        report.put("java", System.getProperty("java.version"));
+        report.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("warmup", warmup);
+        report.put("iterations", iterations);
+        report.put("results", results);
+
+        String json = Json.write(report);
+        if (options.containsKey("output")) {
+            File output = new File(options.get("output"));
+            File parent = output.getAbsoluteFile().getParentFile();
+            if (!parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Cannot create " + parent);
+            }
+            try (OutputStream stream = new FileOutputStream(output)) {
+                stream.write(json.getBytes(Charset.forName("UTF-8")));
+            }
+            System.err.println("wrote " + output.getAbsolutePath());
+        } else {
+            System.out.print(json);
+        }
+    }
+
+    /** نتیجه یک اجرا؛ زمان‌ها بر حسب نانوثانیه. */
+    private static final class Run {
+        long loadNanos;
+        long totalNanos;
+        long[] pageNanos;
+        long peakHeapBytes;
+        long allocatedBytes;
+        Map<String, Object> summary;
+    }
+
+    /** اسناد مانند PdfSource پلاگین با MemoryUsageSetting ترکیبی بارگذاری می‌شوند. */
+    private static Run run(File file, String pipelineName) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        resetHeap();
+        long allocatedBefore = allocatedBytes(threads);
+        Run run = new Run();
+        long start = System.nanoTime();
+
+        String password = file.getName().startsWith("encrypted") ? CorpusGenerator.PASSWORD : "";
+        try (PDDocument document = PDDocument.load(file, password,
+                MemoryUsageSetting.setupMixed(8L * 1024 * 1024))) {
+            run.loadNanos = System.nanoTime() - start;
+            Pipelines.Pipeline pipeline = Pipelines.create(pipelineName);
+            int pages = document.getNumberOfPages();
+            run.pageNanos = new long[pages];
+            for (int i = 0; i < pages; i++) {
+                long pageStart = System.nanoTime();
+                pipeline.processPage(document, i);
+                run.pageNanos[i] = System.nanoTime() - pageStart;
+            }
+            run.summary = pipeline.summary();
+        }
+
+        run.totalNanos = System.nanoTime() - start;
+        run.allocatedBytes = allocatedBytes(threads) - allocatedBefore;
+        run.peakHeapBytes = peakHeap();
+        return run;
+    }
+
+    private static Map<String, Object> report(File file, String pipeline, List<Run> runs) {
+        int pages = runs.get(0).pageNanos.length;
+        List<Double> loads = new ArrayList<>();
+        List<Double> totals = new ArrayList<>();
+        List<Double> allPages = new ArrayList<>();
+        List<Double> rates = new ArrayList<>();
+        List<Double> allocations = new ArrayList<>();
+        long peakHeap = 0;
+        for (Run run : runs) {
+            loads.add(millis(run.loadNanos));
+            totals.add(millis(run.totalNanos));
+            for (long nanos : run.pageNanos) {
+                allPages.add(millis(nanos));
+            }
+            allocations.add((double) run.allocatedBytes);
+            rates.add(run.allocatedBytes / (1024.0 * 1024.0) / (run.totalNanos / 1e9));
+            peakHeap = Math.max(peakHeap, run.peakHeapBytes);
+        }
+        // میانه زمان هر صفحه در اجراها
+        List<Double> pageMedians = new ArrayList<>();
+        for (int i = 0; i < pages; i++) {
+            List<Double> samples = new ArrayList<>();
+            for (Run run : runs) {
+                samples.add(millis(run.pageNanos[i]));
+            }
+            pageMedians.add(percentile(samples, 50));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("file", file.getName());
+        result.put("fileBytes", file.length());
+        result.put("pipeline", pipeline);
+        result.put("pages", pages);
+        result.put("loadMs", stats(loads));
+        result.put("totalMs", stats(totals));
+        result.put("perPageMs", stats(allPages));
+        result.put("pageMedianMs", pageMedians);
+        result.put("peakHeapBytes", peakHeap);
+        result.put("allocatedBytes", percentile(allocations, 50).longValue());
+        result.put("allocationRateMBps", percentile(rates, 50));
+        result.put("output", runs.get(runs.size() - 1).summary);
+        return result;
+    }
+
+    private static Map<String, Object> stats(List<Double> samples) {
+        double sum = 0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("median", percentile(samples, 50));
+        stats.put("p95", percentile(samples, 95));
+        stats.put("min", Collections.min(samples));
+        stats.put("max", Collections.max(samples));
+        stats.put("mean", sum / samples.size());
+        return stats;
+    }
+
+    private static Double percentile(List<Double> samples, int percentile) {
+        List<Double> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /** پیش از هر اجرا زباله‌روبی و صفر کردن بیشینه مصرف استخرهای heap. */
+    private static void resetHeap() {
+        System.gc();
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * مجموع بیشینه مصرف استخرهای heap از آخرین صفر شدن. بیشینه‌های استخرها ممکن است
+     * در لحظه‌های متفاوت رخ داده باشند، پس این مقدار کران بالای بیشینه واقعی است.
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /** تخصیص نخ جاری؛ روی JVMهایی که پشتیبانی نکنند -1 است. */
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,210 @@
+package io.endigo.plugins.pdfviewflutter.benchmark;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.encryption.AccessPermission;
+import org.apache.pdfbox.pdmodel.encryption.StandardProtectionPolicy;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * پیکره ثابت بنچمارک را می‌سازد. همه محتوا از بذر ثابت تولید می‌شود تا اجرای دوباره
+ * همان اسناد را بسازد (به جز نمک تصادفی رمزنگاری در encrypted.pdf).
+ */
+public final class CorpusGenerator {
+    static final String PASSWORD = "benchmark";
+
+    private static final long SEED = 20240101L;
+    private static final String[] WORDS = {
+            "lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+            "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua", "enim",
+            "minim", "veniam", "quis", "nostrud", "exercitation", "ullamco", "laboris", "nisi", "aliquip",
+            "commodo", "consequat", "duis", "aute", "irure", "reprehenderit", "voluptate", "velit", "esse",
+            "cillum", "fugiat", "nulla", "pariatur", "excepteur", "sint", "occaecat", "cupidatat", "proident",
+            "manual", "section", "valve", "pressure", "torque", "assembly", "warning", "install", "replace",
+    };
+
+    private CorpusGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : "corpus");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        textHeavy(new File(directory, "text-heavy.pdf"));
+        imageHeavy(new File(directory, "image-heavy.pdf"));
+        duplicateImages(new File(directory, "duplicate-images.pdf"));
+        hugePage(new File(directory, "huge-page.pdf"));
+        encrypted(new File(directory, "encrypted.pdf"));
+    }
+
+    /** 60 صفحه متن پیوسته؛ نماینده دفترچه‌های راهنمای طولانی. */
+    private static void textHeavy(File file) throws IOException {
+        Random random = new Random(SEED);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < 60; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    writeParagraphs(content, random, page.getMediaBox(), 48);
+                }
+            }
+            document.save(file);
+        }
+    }
+
+    /** 20 صفحه و روی هر صفحه چهار تصویر یکتا، نیمی DCT و نیمی Flate. */
+    private static void imageHeavy(File file) throws IOException {
+        Random random = new Random(SEED + 1);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < 20; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    for (int j = 0; j < 4; j++) {
+                        PDImageXObject xobject = j % 2 == 0
+                                ? JPEGFactory.createFromImage(document, pattern(random, 320, 240), 0.8f)
+                                : LosslessFactory.createFromImage(document, stripes(random, 160, 120));
+                        content.drawImage(xobject, 40 + (j % 2) * 270, 440 - (j / 2) * 380, 250, 190);
+                    }
+                }
+            }
+            document.save(file);
+        }
+    }
+
+    /**
+     * 40 صفحه که هر کدام سه تصویر مشترک (یک شیء) و یک کپی جداگانه از یک لوگو
+     * (اشیاء متفاوت با بایت‌های یکسان) دارند؛ هر دو مسیر حذف تکرار را می‌سنجد.
+     */
+    private static void duplicateImages(File file) throws IOException {
+        Random random = new Random(SEED + 2);
+        try (PDDocument document = new PDDocument()) {
+            PDImageXObject[] shared = new PDImageXObject[3];
+            for (int i = 0; i < shared.length; i++) {
+                shared[i] = JPEGFactory.createFromImage(document, pattern(random, 320, 240), 0.8f);
+            }
+            BufferedImage logo = stripes(new Random(SEED + 3), 96, 96);
+            for (int i = 0; i < 40; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    for (int j = 0; j < shared.length; j++) {
+                        content.drawImage(shared[j], 40 + j * 180, 600, 160, 120);
+                    }
+                    content.drawImage(LosslessFactory.createFromImage(document, logo), 40, 40, 48, 48);
+                    writeParagraphs(content, random, new PDRectangle(0, 100, 595, 480), 12);
+                }
+            }
+            document.save(file);
+        }
+    }
+
+    /** یک صفحه 200 در 200 اینچ (بیشینه مجاز PDF) با هزاران شکل برداری و یک تصویر بزرگ. */
+    private static void hugePage(File file) throws IOException {
+        Random random = new Random(SEED + 4);
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(new PDRectangle(14400, 14400));
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                for (int i = 0; i < 4000; i++) {
+                    content.setNonStrokingColor(new Color(random.nextInt(0xFFFFFF)));
+                    content.addRect(random.nextInt(14000), random.nextInt(14000),
+                            50 + random.nextInt(400), 50 + random.nextInt(400));
+                    content.fill();
+                }
+                content.drawImage(JPEGFactory.createFromImage(document, pattern(random, 1600, 1600), 0.7f),
+                        4000, 4000, 6400, 6400);
+                content.setNonStrokingColor(Color.BLACK);
+                writeParagraphs(content, random, new PDRectangle(200, 200, 14000, 2000), 40);
+            }
+            document.save(file);
+        }
+    }
+
+    /** 10 صفحه متن و تصویر با رمزنگاری AES-256 و رمز کاربر {@link #PASSWORD}. */
+    private static void encrypted(File file) throws IOException {
+        Random random = new Random(SEED + 5);
+        try (PDDocument document = new PDDocument()) {
+            for (int i = 0; i < 10; i++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.drawImage(JPEGFactory.createFromImage(document, pattern(random, 320, 240), 0.8f),
+                            40, 560, 320, 240);
+                    writeParagraphs(content, random, new PDRectangle(0, 0, 595, 540), 30);
+                }
+            }
+            StandardProtectionPolicy policy = new StandardProtectionPolicy(PASSWORD + "-owner", PASSWORD,
+                    new AccessPermission());
+            policy.setEncryptionKeyLength(256);
+            document.protect(policy);
+            document.save(file);
+        }
+    }
+
+    private static void writeParagraphs(PDPageContentStream content, Random random, PDRectangle box, int lines)
+            throws IOException {
+        float fontSize = box.getHeight() > 2000 ? 36 : 10;
+        float leading = fontSize * 1.4f;
+        content.beginText();
+        content.setFont(PDType1Font.HELVETICA, fontSize);
+        content.setLeading(leading);
+        content.newLineAtOffset(box.getLowerLeftX() + 40, box.getUpperRightY() - 40);
+        int wordsPerLine = (int) ((box.getWidth() - 80) / (fontSize * 5));
+        for (int line = 0; line < lines && line * leading < box.getHeight() - 80; line++) {
+            StringBuilder builder = new StringBuilder();
+            for (int w = 0; w < wordsPerLine; w++) {
+                if (w > 0) {
+                    builder.append(' ');
+                }
+                builder.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            content.showText(builder.toString());
+            content.newLine();
+        }
+        content.endText();
+    }
+
+    /** گرادیان و دایره‌های رنگی؛ برای DCT مناسب است و در Flate خوب فشرده نمی‌شود. */
+    private static BufferedImage pattern(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                width, height, new Color(random.nextInt(0xFFFFFF))));
+        graphics.fillRect(0, 0, width, height);
+        for (int i = 0; i < 12; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            int size = 10 + random.nextInt(Math.max(11, width / 3));
+            graphics.fillOval(random.nextInt(width), random.nextInt(height), size, size);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    /** نوارهای رنگی تخت که با Flate به‌خوبی فشرده می‌شوند. */
+    private static BufferedImage stripes(Random random, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        int stripe = 8 + random.nextInt(16);
+        for (int x = 0; x < width; x += stripe) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillRect(x, 0, stripe, height);
+        }
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,103 @@
+package io.endigo.plugins.pdfviewflutter.benchmark;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** نویسنده ساده JSON برای نقشه‌ها، فهرست‌ها، رشته‌ها، اعداد و مقادیر منطقی. */
+final class Json {
+    private Json() {
+    }
+
+    static String write(Object value) {
+        StringBuilder builder = new StringBuilder();
+        write(builder, value, 0);
+        return builder.append('\n').toString();
+    }
+
+    private static void write(StringBuilder builder, Object value, int indent) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof String) {
+            writeString(builder, (String) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            builder.append(Double.isNaN(number) || Double.isInfinite(number)
+                    ? "null" : String.format(Locale.ROOT, "%.3f", number));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Map) {
+            builder.append('{');
+            Iterator<? extends Map.Entry<?, ?>> iterator = ((Map<?, ?>) value).entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<?, ?> entry = iterator.next();
+                newLine(builder, indent + 1);
+                writeString(builder, String.valueOf(entry.getKey()));
+                builder.append(": ");
+                write(builder, entry.getValue(), indent + 1);
+                if (iterator.hasNext()) {
+                    builder.append(',');
+                }
+            }
+            newLine(builder, indent);
+            builder.append('}');
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            // فهرست‌های عددی در یک خط نوشته می‌شوند تا زمان صفحات خوانا بماند
+            boolean inline = list.isEmpty() || list.get(0) instanceof Number;
+            builder.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (!inline) {
+                    newLine(builder, indent + 1);
+                }
+                write(builder, list.get(i), indent + 1);
+                if (i < list.size() - 1) {
+                    builder.append(inline ? ", " : ",");
+                }
+            }
+            if (!inline) {
+                newLine(builder, indent);
+            }
+            builder.append(']');
+        } else {
+            writeString(builder, value.toString());
+        }
+    }
+
+    private static void newLine(StringBuilder builder, int indent) {
+        builder.append('\n');
+        for (int i = 0; i < indent; i++) {
+            builder.append("  ");
+        }
+    }
+
+    private static void writeString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        builder.append('"');
+    }
+}
@@ -0,0 +1,253 @@
+package io.endigo.plugins.pdfviewflutter.benchmark;
+
+import org.apache.pdfbox.contentstream.PDFStreamEngine;
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * نسخه JVM مسیرهای پردازش پلاگین. کد اندروید به android.graphics وابسته است و روی JVM
+ * اجرا نمی‌شود، پس هر مسیر همان مراحل را با معادل AWT آن تکرار می‌کند:
+ * ImageExtractor (حذف تکرار با شیء و هش جریان خام)، ThumbnailRenderer (رندر مستقیم در
+ * اندازه هدف و فشرده‌سازی PNG) و PageTextStripper نمایه متن. با تغییر مسیرهای اصلی
+ * این فایل نیز باید به‌روز شود.
+ */
+final class Pipelines {
+    static final String[] NAMES = {"extractImages", "extractImagesDecoded", "thumbnails", "textIndex"};
+
+    private Pipelines() {
+    }
+
+    /** یک مسیر برای یک سند؛ برای هر اجرا نمونه تازه ساخته می‌شود. */
+    abstract static class Pipeline {
+        abstract void processPage(PDDocument document, int pageIndex) throws IOException;
+
+        /** شمارنده‌های خروجی برای اطمینان از اینکه اجراها کار یکسانی انجام داده‌اند. */
+        abstract Map<String, Object> summary();
+    }
+
+    static Pipeline create(String name) throws IOException {
+        switch (name) {
+            case "extractImages":
+                return new ImageExtraction(false);
+            case "extractImagesDecoded":
+                return new ImageExtraction(true);
+            case "thumbnails":
+                return new Thumbnails(256, 256);
+            case "textIndex":
+                return new TextIndex();
+            default:
+                throw new IllegalArgumentException("Unknown pipeline " + name);
+        }
+    }
+
+    /** معادل ImageExtractor با خروجی bytes (بدون base64) و در حالت decode با PNG. */
+    static final class ImageExtraction extends Pipeline {
+        private final boolean decode;
+        private final Map<COSStream, Integer> imagesByObject = new IdentityHashMap<>();
+        private final Map<String, Integer> imagesByDigest = new HashMap<>();
+        private final Engine engine = new Engine();
+        private int images;
+        private int reused;
+        private long outputBytes;
+
+        ImageExtraction(boolean decode) {
+            this.decode = decode;
+        }
+
+        @Override
+        void processPage(PDDocument document, int pageIndex) throws IOException {
+            engine.processPage(document.getPage(pageIndex));
+        }
+
+        @Override
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("images", images);
+            summary.put("reused", reused);
+            summary.put("outputBytes", outputBytes);
+            return summary;
+        }
+
+        private final class Engine extends PDFStreamEngine {
+            @Override
+            protected void processOperator(Operator operator, List<COSBase> operands) throws IOException {
+                if (!"Do".equals(operator.getName())) {
+                    super.processOperator(operator, operands);
+                    return;
+                }
+                PDXObject xobject = getResources().getXObject((COSName) operands.get(0));
+                if (!(xobject instanceof PDImageXObject)) {
+                    return;
+                }
+                PDImageXObject image = (PDImageXObject) xobject;
+                COSStream stream = image.getCOSObject();
+                if (imagesByObject.containsKey(stream)) {
+                    reused++;
+                    return;
+                }
+                String digest = digest(stream);
+                if (imagesByDigest.containsKey(digest)) {
+                    imagesByObject.put(stream, imagesByDigest.get(digest));
+                    reused++;
+                    return;
+                }
+                imagesByObject.put(stream, images);
+                imagesByDigest.put(digest, images);
+                images++;
+
+                if (decode) {
+                    BufferedImage decoded = image.getImage();
+                    outputBytes += encodePng(decoded).length;
+                } else {
+                    try (InputStream input = image.getStream().createInputStream()) {
+                        outputBytes += IOUtils.toByteArray(input).length;
+                    }
+                }
+            }
+        }
+    }
+
+    /** معادل ThumbnailRenderer: مقیاس جا شدن در width × height، پس‌زمینه سفید و PNG. */
+    static final class Thumbnails extends Pipeline {
+        private final int width;
+        private final int height;
+        private PDFRenderer renderer;
+        private int rendered;
+        private long outputBytes;
+
+        Thumbnails(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        void processPage(PDDocument document, int pageIndex) throws IOException {
+            if (renderer == null) {
+                renderer = new PDFRenderer(document);
+            }
+            PDPage page = document.getPage(pageIndex);
+            PDRectangle box = page.getCropBox();
+            boolean rotated = page.getRotation() % 180 != 0;
+            float pageWidth = rotated ? box.getHeight() : box.getWidth();
+            float pageHeight = rotated ? box.getWidth() : box.getHeight();
+            float scale = Math.min(width / pageWidth, height / pageHeight);
+            BufferedImage image = renderer.renderImage(pageIndex, scale, ImageType.RGB);
+            outputBytes += encodePng(image).length;
+            rendered++;
+        }
+
+        @Override
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("thumbnails", rendered);
+            summary.put("outputBytes", outputBytes);
+            return summary;
+        }
+    }
+
+    /** معادل PageTextStripper: استخراج و شکستن واژه‌های هر صفحه (بدون ساخت کادرها). */
+    static final class TextIndex extends Pipeline {
+        private final Stripper stripper = new Stripper();
+        private final Map<String, Integer> terms = new HashMap<>();
+        private int words;
+
+        TextIndex() throws IOException {
+        }
+
+        @Override
+        void processPage(PDDocument document, int pageIndex) throws IOException {
+            stripper.setStartPage(pageIndex + 1);
+            stripper.setEndPage(pageIndex + 1);
+            stripper.writeText(document, new StringWriter());
+        }
+
+        @Override
+        Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("words", words);
+            summary.put("terms", terms.size());
+            return summary;
+        }
+
+        private final class Stripper extends PDFTextStripper {
+            Stripper() throws IOException {
+            }
+
+            @Override
+            protected void writeString(String text, List<TextPosition> positions) {
+                int start = -1;
+                for (int i = 0; i <= text.length(); i++) {
+                    boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+                    if (wordChar && start < 0) {
+                        start = i;
+                    } else if (!wordChar && start >= 0) {
+                        String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                        Integer count = terms.get(term);
+                        terms.put(term, count != null ? count + 1 : 1);
+                        words++;
+                        start = -1;
+                    }
+                }
+            }
+        }
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    static byte[] encodePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", stream);
+        return stream.toByteArray();
+    }
+
+    static String digest(COSStream stream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream input = stream.createRawInputStream()) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+}
@@ -1,5 +1,6 @@
 import 'dart:async';
 import 'dart:convert';
+import 'dart:io';
 
 import 'package:flutter/foundation.dart';
 import 'package:flutter/gestures.dart';
@@ -14,6 +15,53 @@ typedef ErrorCallback = void Function(dynamic error);
 typedef PageErrorCallback = void Function(int? page, dynamic error);
 typedef LinkHandlerCallback = void Function(String? uri);
 typedef ScrollChangedCallback = void Function(double? x, double? y);
+typedef MetricsCallback = void Function(Map<String, dynamic> metrics);
+typedef LoadProgressCallback = void Function(PDFLoadProgress progress);
+
+/// خواندن `length` بایت از `offset` منبع؛ برای [PDFStreamSources.ranged].
+typedef PDFRangeReader = Future<List<int>> Function(int offset, int length);
+
+/// شکل بازگشت داده‌های تصویری از ابزارها.
+/// [base64] سازگار با نسخه‌های قبل است؛ [bytes] داده خام را بدون سربار ۳۳٪ کدگذاری
+/// برمی‌گرداند و [file] نتیجه را در پوشه کش برنامه می‌نویسد و فقط مسیر را برمی‌گرداند.
+/// فایل‌های [file] پس از یک روز یا با رسیدن حجم پوشه به ۱۰۰ مگابایت (قدیمی‌ترین‌ها اول)
+/// حذف می‌شوند و [PDFTools.clearOutputFiles] همه آن‌ها را پاک می‌کند؛ فایلی را که
+/// نگه می‌دارید به پوشه دیگری منتقل کنید.
+enum PDFOutputMode { base64, bytes, file }
+
+/// قالب فشرده‌سازی تصاویری که در خود پلاگین رمزگشایی یا رندر می‌شوند.
+enum PDFImageFormat { png, jpeg, webp }
+
+/// پیکربندی بیت‌مپ رندر؛ [rgb565] حافظه هر پیکسل را نصف می‌کند (بدون شفافیت).
+enum PDFBitmapConfig { argb8888, rgb565 }
+
+extension on PDFBitmapConfig {
+  String get nativeName =>
+      this == PDFBitmapConfig.rgb565 ? 'RGB_565' : 'ARGB_8888';
+}
+
+/// تنظیمات رمزگشایی تصاویر در استخراج. بدون آن بایت‌های خام جریان تصویر برگردانده می‌شوند
+/// که برای تصاویر FlateDecode، CCITT و JBIG2 در Flutter قابل نمایش نیستند.
+/// با این تنظیمات تصویر رمزگشایی، در صورت نیاز هنگام رمزگشایی تا `maxDimension`
+/// کوچک و با `format` و `quality` دوباره فشرده می‌شود.
+class PDFImageDecoding {
+  final int? maxDimension;
+  final PDFImageFormat format;
+  final int quality;
+
+  const PDFImageDecoding({
+    this.maxDimension,
+    this.format = PDFImageFormat.png,
+    this.quality = 90,
+  });
+
+  Map<String, dynamic> toMap() => {
+        'decode': true,
+        'maxDimension': maxDimension,
+        'format': format.name,
+        'quality': quality,
+      };
+}
 
 /// قابلیت جدید: یک کلاس مدل برای نگهداری داده‌های تصویر استخراج شده.
 /// این کلاس شامل فرمت اصلی تصویر و داده‌های Base64 آن است.
@@ -21,18 +69,91 @@ class PDFImage {
   final String format;
   final String base64Data;
 
-  PDFImage({required this.format, required this.base64Data});
+  /// داده خام در حالت [PDFOutputMode.bytes].
+  final Uint8List? rawBytes;
+
+  /// مسیر فایل در حالت [PDFOutputMode.file].
+  final String? path;
+
+  /// شناسه یکتای تصویر در سند؛ تصاویر تکراری فقط یک بار گزارش می‌شوند.
+  final int id;
+
+  /// صفحاتی (از صفر) که از این تصویر استفاده کرده‌اند.
+  final List<int> pages;
+
+  /// ابعاد تصویر رمزگشایی‌شده؛ برای داده خام null است.
+  final int? width;
+  final int? height;
+
+  PDFImage({
+    required this.format,
+    required this.base64Data,
+    this.rawBytes,
+    this.path,
+    this.id = 0,
+    this.pages = const [],
+    this.width,
+    this.height,
+  });
 
   factory PDFImage.fromMap(Map<dynamic, dynamic> map) {
     return PDFImage(
       format: map['format'] ?? 'unknown',
       base64Data: map['data'] ?? '',
+      rawBytes: map['bytes'],
+      path: map['path'],
+      id: map['id'] ?? 0,
+      pages: (map['pages'] as List<dynamic>?)?.cast<int>() ?? const [],
+      width: map['width'],
+      height: map['height'],
     );
   }
 
   /// یک متد کمکی برای نمایش آسان تصویر با ویجت Image.
   /// مثال: Image.memory(pdfImage.bytes)
-  Uint8List get bytes => base64Decode(base64Data);
+  /// در حالت [PDFOutputMode.file] فایل روی isolate رابط کاربری خوانده نمی‌شود؛
+  /// از [readBytes] یا مستقیماً از [path] (مثلاً Image.file) استفاده کنید.
+  Uint8List get bytes => _memoryBytes(rawBytes, path, base64Data);
+
+  /// داده تصویر در هر حالت خروجی؛ فایل به صورت غیرهمگام خوانده می‌شود.
+  Future<Uint8List> readBytes() => _readBytes(rawBytes, path, base64Data);
+}
+
+/// تصاویر یک صفحه در [PDFTools.extractImagesStream] همراه با وضعیت پیشرفت کار.
+class PDFImagePage {
+  final int page;
+  final List<PDFImage> images;
+
+  /// شناسه تصاویری که در صفحات قبلی گزارش شده‌اند و در این صفحه دوباره آمده‌اند.
+  final List<int> reusedImages;
+  final int pagesProcessed;
+  final int totalPages;
+  final int imagesFound;
+
+  PDFImagePage({
+    required this.page,
+    required this.images,
+    this.reusedImages = const [],
+    required this.pagesProcessed,
+    required this.totalPages,
+    required this.imagesFound,
+  });
+
+  factory PDFImagePage.fromMap(Map<dynamic, dynamic> map) {
+    return PDFImagePage(
+      page: map['page'] ?? 0,
+      images: (map['images'] as List<dynamic>? ?? [])
+          .map((imageData) => PDFImage.fromMap(imageData))
+          .toList(),
+      reusedImages:
+          (map['reusedImages'] as List<dynamic>?)?.cast<int>() ?? const [],
+      pagesProcessed: map['pagesProcessed'] ?? 0,
+      totalPages: map['totalPages'] ?? 0,
+      imagesFound: map['imagesFound'] ?? 0,
+    );
+  }
+
+  double get progress => totalPages == 0 ? 1 : pagesProcessed / totalPages;
 }
 
 /// قابلیت جدید: یک کلاس مدل برای نگهداری داده‌های تصویر بندانگشتی (Thumbnail).
@@ -41,42 +162,304 @@ class PDFThumbnail {
   final int width;
   final int height;
 
+  /// شماره صفحه (از صفر) که تصویر از آن ساخته شده است.
+  final int page;
+
+  /// در [PDFTools.generateThumbnails] اندیس منبع در لیست `sources`.
+  final int sourceIndex;
+
+  /// داده خام در حالت [PDFOutputMode.bytes].
+  final Uint8List? rawBytes;
+
+  /// مسیر فایل در حالت [PDFOutputMode.file].
+  /// اگر کش دیسک فعال باشد این مسیر داخل کش است و نباید حذف یا تغییر داده شود.
+  final String? path;
+
+  /// آیا تصویر بدون رندر دوباره از کش دیسک خوانده شده است.
+  final bool cached;
+
+  /// آیا به دلیل کمبود بودجه حافظه با ابعاد کمتر از درخواست رندر شده است.
+  final bool degraded;
+
   PDFThumbnail({
     required this.base64Data,
     required this.width,
     required this.height,
+    this.page = 0,
+    this.sourceIndex = 0,
+    this.rawBytes,
+    this.path,
+    this.cached = false,
+    this.degraded = false,
   });
 
-  factory PDFThumbnail.fromMap(Map<dynamic, dynamic> map) {
+  factory PDFThumbnail.fromMap(Map<dynamic, dynamic> map,
+      {int sourceIndex = 0}) {
     return PDFThumbnail(
       base64Data: map['data'] ?? '',
       width: map['width'] ?? 0,
       height: map['height'] ?? 0,
+      page: map['page'] ?? 0,
+      sourceIndex: sourceIndex,
+      rawBytes: map['bytes'],
+      path: map['path'],
+      cached: map['cached'] ?? false,
+      degraded: map['degraded'] ?? false,
     );
   }
 
   /// یک متد کمکی برای نمایش آسان تصویر با ویجت Image.
   /// مثال: Image.memory(pdfThumbnail.bytes)
-  Uint8List get bytes => base64Decode(base64Data);
+  /// در حالت [PDFOutputMode.file] فایل روی isolate رابط کاربری خوانده نمی‌شود؛
+  /// از [readBytes] یا مستقیماً از [path] (مثلاً Image.file) استفاده کنید.
+  Uint8List get bytes => _memoryBytes(rawBytes, path, base64Data);
+
+  /// داده تصویر در هر حالت خروجی؛ فایل به صورت غیرهمگام خوانده می‌شود.
+  Future<Uint8List> readBytes() => _readBytes(rawBytes, path, base64Data);
+}
+
+Uint8List _memoryBytes(Uint8List? rawBytes, String? path, String base64Data) {
+  if (rawBytes != null) {
+    return rawBytes;
+  }
+  if (path != null) {
+    throw StateError('Output is a file; use readBytes() instead of bytes.');
+  }
+  return base64Decode(base64Data);
+}
+
+Future<Uint8List> _readBytes(
+    Uint8List? rawBytes, String? path, String base64Data) async {
+  if (path != null && rawBytes == null) {
+    return File(path).readAsBytes();
+  }
+  return _memoryBytes(rawBytes, path, base64Data);
+}
+
+/// منبع یک سند برای درخواست‌های دسته‌ای [PDFTools].
+class PDFSource {
+  final String? filePath;
+  final Uint8List? pdfData;
+
+  /// رمز این سند؛ اگر null باشد رمز کلی درخواست به کار می‌رود.
+  final String? password;
+
+  const PDFSource({this.filePath, this.pdfData, this.password})
+      : assert(filePath != null || pdfData != null);
+
+  Map<String, dynamic> toMap() =>
+      {'filePath': filePath, 'pdfData': pdfData, 'password': password};
+}
+
+/// بازه‌ای از صفحات (از صفر و شامل هر دو سر) برای [PDFTools.generateThumbnails].
+class PDFPageRange {
+  final int start;
+  final int end;
+
+  const PDFPageRange(this.start, this.end);
+
+  Map<String, int> toMap() => {'start': start, 'end': end};
+}
+
+/// کادر یک واژه بر حسب نقطه PDF با مبدأ گوشه بالا-چپ صفحه.
+class PDFTextBox {
+  final double left;
+  final double top;
+  final double right;
+  final double bottom;
+
+  const PDFTextBox(this.left, this.top, this.right, this.bottom);
+
+  factory PDFTextBox.fromMap(Map<dynamic, dynamic> map) => PDFTextBox(
+      map['left'], map['top'], map['right'], map['bottom']);
+
+  Map<String, double> toMap() =>
+      {'left': left, 'top': top, 'right': right, 'bottom': bottom};
+}
+
+/// یک نتیجه جست‌وجوی متن: شماره صفحه (از صفر)، ابعاد صفحه و کادر هر واژه تطبیق‌یافته.
+/// برای برجسته کردن در نمایشگر به [PDFViewController.setHighlights] داده می‌شود.
+class PDFTextHit {
+  final int page;
+  final double pageWidth;
+  final double pageHeight;
+  final int wordIndex;
+  final List<PDFTextBox> boxes;
+
+  PDFTextHit({
+    required this.page,
+    required this.pageWidth,
+    required this.pageHeight,
+    required this.wordIndex,
+    required this.boxes,
+  });
+
+  factory PDFTextHit.fromMap(Map<dynamic, dynamic> map) => PDFTextHit(
+        page: map['page'],
+        pageWidth: map['pageWidth'],
+        pageHeight: map['pageHeight'],
+        wordIndex: map['wordIndex'] ?? 0,
+        boxes: (map['boxes'] as List<dynamic>)
+            .map((box) => PDFTextBox.fromMap(box))
+            .toList(),
+      );
+
+  Map<String, dynamic> toMap() => {
+        'page': page,
+        'pageWidth': pageWidth,
+        'pageHeight': pageHeight,
+        'wordIndex': wordIndex,
+        'boxes': boxes.map((box) => box.toMap()).toList(),
+      };
+}
+
+/// وضعیت نمایه متن یک سند؛ نتایج جست‌وجو فقط صفحات نمایه‌شده را پوشش می‌دهند.
+class PDFTextIndexStatus {
+  final int indexedPages;
+  final int? totalPages;
+  final bool complete;
+  final int wordCount;
+
+  /// در رویدادهای [PDFTools.indexText] صفحه‌ای که تازه نمایه شده است.
+  final int? page;
+
+  PDFTextIndexStatus({
+    required this.indexedPages,
+    this.totalPages,
+    this.complete = false,
+    this.wordCount = 0,
+    this.page,
+  });
+
+  factory PDFTextIndexStatus.fromMap(Map<dynamic, dynamic> map) =>
+      PDFTextIndexStatus(
+        indexedPages: map['indexedPages'] ?? 0,
+        totalPages: map['totalPages'],
+        complete: map['complete'] ?? false,
+        wordCount: map['wordCount'] ?? 0,
+        page: map['page'],
+      );
+}
+
+/// نتیجه [PDFTools.searchText] همراه با وضعیت نمایه در لحظه جست‌وجو.
+class PDFTextSearchResult {
+  final List<PDFTextHit> hits;
+  final PDFTextIndexStatus status;
+
+  PDFTextSearchResult(this.hits, this.status);
+
+  factory PDFTextSearchResult.fromMap(Map<dynamic, dynamic> map) =>
+      PDFTextSearchResult(
+        (map['hits'] as List<dynamic>)
+            .map((hit) => PDFTextHit.fromMap(hit))
+            .toList(),
+        PDFTextIndexStatus.fromMap(map),
+      );
+}
+
+/// ابعاد ناحیه قابل مشاهده یک صفحه (CropBox) بر حسب point و چرخش آن بر حسب درجه.
+class PDFPageInfo {
+  final double width;
+  final double height;
+  final int rotation;
+
+  PDFPageInfo.fromMap(Map<dynamic, dynamic> map)
+      : width = map['width'],
+        height = map['height'],
+        rotation = map['rotation'] ?? 0;
+
+  /// ابعاد پس از اعمال چرخش، همان‌طور که صفحه نمایش داده می‌شود.
+  Size get displaySize =>
+      rotation % 180 == 0 ? Size(width, height) : Size(height, width);
+}
+
+/// یک آیتم فهرست مطالب؛ `page` (از صفر) برای مقصدهای نامعتبر یا خارجی null است.
+class PDFOutlineItem {
+  final String? title;
+  final int? page;
+  final List<PDFOutlineItem> children;
+
+  PDFOutlineItem.fromMap(Map<dynamic, dynamic> map)
+      : title = map['title'],
+        page = map['page'],
+        children = (map['children'] as List<dynamic>? ?? const [])
+            .map((child) => PDFOutlineItem.fromMap(child))
+            .toList();
+}
+
+/// نتیجه [PDFTools.getDocumentInfo].
+class PDFDocumentInfo {
+  final int pageCount;
+  final List<PDFPageInfo> pages;
+  final List<PDFOutlineItem> outline;
+  final double version;
+  final bool encrypted;
+
+  /// title، author، subject، keywords، creator، producer و تاریخ‌ها (میلی‌ثانیه) در صورت وجود.
+  final Map<String, dynamic> metadata;
+
+  PDFDocumentInfo.fromMap(Map<dynamic, dynamic> map)
+      : pageCount = map['pageCount'],
+        pages = (map['pages'] as List<dynamic>)
+            .map((page) => PDFPageInfo.fromMap(page))
+            .toList(),
+        outline = (map['outline'] as List<dynamic>)
+            .map((item) => PDFOutlineItem.fromMap(item))
+            .toList(),
+        version = map['version'],
+        encrypted = map['encrypted'],
+        metadata = (map['metadata'] as Map<dynamic, dynamic>)
+            .cast<String, dynamic>();
 }
 
 /// قابلیت جدید: کلاسی برای ارائه ابزارهای استاتیک جهت کار با فایل‌های PDF
 /// بدون نیاز به ساخت ویجت.
+///
+/// همه ابزارها `password` را برای اسناد رمزگذاری‌شده می‌پذیرند. سند رمزگشایی‌شده حداکثر
+/// یک دقیقه پس از آخرین استفاده برای درخواست‌های بعدی (مثلاً تصاویر بندانگشتی صفحات
+/// دیگر) نگه داشته می‌شود و خروجی اسناد رمزدار در کش دیسک یا نمایه ذخیره‌شده نوشته نمی‌شود.
 class PDFTools {
   static const MethodChannel _channel =
       MethodChannel('plugins.endigo.io/pdfview_tools');
+  static const EventChannel _eventChannel =
+      EventChannel('plugins.endigo.io/pdfview_tools/events');
+  static Stream<Map<dynamic, dynamic>>? _events;
+  static int _nextRequestId = 0;
+
+  /// جریان مشترک رویدادهای نیتیو؛ هر رویداد فیلد `requestId` دارد.
+  static Stream<Map<dynamic, dynamic>> _eventsFor(String requestId) {
+    _events ??= _eventChannel
+        .receiveBroadcastStream()
+        .map((event) => event as Map<dynamic, dynamic>);
+    return _events!.where((event) => event['requestId'] == requestId);
+  }
+
+  static String _generateRequestId(String prefix) =>
+      '$prefix-${DateTime.now().microsecondsSinceEpoch}-${_nextRequestId++}';
 
   /// تمام تصاویر را از یک فایل PDF استخراج می‌کند.
   /// می‌توان مسیر فایل (`filePath`) یا داده‌های بایت (`pdfData`) را ارائه داد.
+  /// با `requestId` می‌توان کار را بعداً با [cancel] لغو کرد؛
+  /// کارهای با `priority` بالاتر زودتر از صف اجرا می‌شوند.
   static Future<List<PDFImage>?> extractImages({
     String? filePath,
     Uint8List? pdfData,
+    String? password,
+    String? requestId,
+    int priority = 0,
+    PDFOutputMode output = PDFOutputMode.base64,
+    PDFImageDecoding? decoding,
   }) async {
     assert(filePath != null || pdfData != null);
     final List<dynamic>? imagesData =
         await _channel.invokeMethod('extractImages', {
       'filePath': filePath,
       'pdfData': pdfData,
+      'password': password,
+      'requestId': requestId,
+      'priority': priority,
+      'output': output.name,
+      ...?decoding?.toMap(),
     });
     if (imagesData == null) {
       return null;
@@ -84,30 +467,450 @@ class PDFTools {
     return imagesData.map((imageData) => PDFImage.fromMap(imageData)).toList();
   }
 
-  /// یک تصویر بندانگشتی (Thumbnail) از صفحه اول PDF تولید می‌کند.
+  /// مانند [extractImages] اما تصاویر هر صفحه به محض یافتن و همراه با پیشرفت کار
+  /// روی Stream برگردانده می‌شوند، بدون اینکه همه تصاویر سند یک‌جا در حافظه بمانند.
+  /// `startPage` و `endPage` (از صفر و شامل هر دو) بازه صفحات و `maxImages` سقف
+  /// تعداد تصاویر را مشخص می‌کنند.
+  static Stream<PDFImagePage> extractImagesStream({
+    String? filePath,
+    Uint8List? pdfData,
+    String? password,
+    int? startPage,
+    int? endPage,
+    int? maxImages,
+    String? requestId,
+    int priority = 0,
+    PDFOutputMode output = PDFOutputMode.base64,
+    PDFImageDecoding? decoding,
+  }) {
+    assert(filePath != null || pdfData != null);
+    final String id = requestId ?? _generateRequestId('images');
+    late StreamController<PDFImagePage> controller;
+    StreamSubscription<Map<dynamic, dynamic>>? subscription;
+
+    controller = StreamController<PDFImagePage>(
+      onListen: () {
+        subscription = _eventsFor(id).listen((event) {
+          if (event['event'] == 'images') {
+            controller.add(PDFImagePage.fromMap(event));
+          }
+        });
+        _channel.invokeMethod('extractImagesStream', {
+          'filePath': filePath,
+          'pdfData': pdfData,
+          'password': password,
+          'startPage': startPage,
+          'endPage': endPage,
+          'maxImages': maxImages,
+          'requestId': id,
+          'priority': priority,
+          'output': output.name,
+          ...?decoding?.toMap(),
+        }).catchError((Object error) {
+          controller.addError(error);
+        }).whenComplete(() async {
+          await subscription?.cancel();
+          await controller.close();
+        });
+      },
+      onCancel: () async {
+        await subscription?.cancel();
+        await cancel(id);
+      },
+    );
+    return controller.stream;
+  }
+
+  /// یک تصویر بندانگشتی (Thumbnail) از صفحه `page` (پیش‌فرض صفحه اول) PDF تولید می‌کند.
   /// می‌توان مسیر فایل (`filePath`) یا داده‌های بایت (`pdfData`) را ارائه داد.
-  /// `quality` بین 0 تا 100 برای فشرده‌سازی تصویر است.
+  /// صفحه مستقیماً در اندازه `width` × `height` یا با `dpi` رندر می‌شود (پیش‌فرض مقیاس 1).
+  /// `quality` بین 0 تا 100 برای فشرده‌سازی JPEG و WEBP است و در PNG اثری ندارد.
+  /// با `diskCache` نتیجه در کش دائمی دیسک ذخیره می‌شود و درخواست‌های بعدی با همان
+  /// سند و تنظیمات، حتی پس از اجرای دوباره برنامه، بدون بارگذاری سند پاسخ داده می‌شوند.
   static Future<PDFThumbnail?> generateThumbnail({
     String? filePath,
     Uint8List? pdfData,
+    String? password,
+    int page = 0,
+    int? width,
+    int? height,
+    double? dpi,
+    PDFBitmapConfig bitmapConfig = PDFBitmapConfig.argb8888,
+    PDFImageFormat format = PDFImageFormat.png,
     int quality = 100,
+    bool diskCache = false,
+    String? requestId,
+    int priority = 0,
+    PDFOutputMode output = PDFOutputMode.base64,
   }) async {
     assert(filePath != null || pdfData != null);
     final Map<dynamic, dynamic>? imageData =
         await _channel.invokeMethod('generateThumbnail', {
       'filePath': filePath,
       'pdfData': pdfData,
+      'password': password,
+      'page': page,
+      'width': width,
+      'height': height,
+      'dpi': dpi,
+      'bitmapConfig': bitmapConfig.nativeName,
+      'format': format.name,
       'quality': quality,
+      'diskCache': diskCache,
+      'requestId': requestId,
+      'priority': priority,
+      'output': output.name,
     });
     if (imageData == null) {
       return null;
     }
     return PDFThumbnail.fromMap(imageData);
   }
+
+  /// تصاویر بندانگشتی چند صفحه یا چند سند را در یک درخواست تولید می‌کند.
+  /// هر سند فقط یک بار بارگذاری می‌شود و نتایج به صورت تدریجی و به محض آماده شدن
+  /// روی Stream برگردانده می‌شوند (ترتیب صفحات تضمین نمی‌شود).
+  /// `pages` می‌تواند شامل شماره صفحه (int) یا [PDFPageRange] باشد؛ null یعنی همه صفحات.
+  /// تصویر طوری مقیاس می‌شود که در `width` × `height` جا شود؛ سایر تنظیمات رندر
+  /// مانند [generateThumbnail] است.
+  /// در صورت لغو با [cancel] و `requestId`، Stream با خطای `Cancelled` بسته می‌شود.
+  static Stream<PDFThumbnail> generateThumbnails({
+    String? filePath,
+    Uint8List? pdfData,
+    String? password,
+    List<PDFSource>? sources,
+    List<Object>? pages,
+    int? width,
+    int? height,
+    double? dpi,
+    PDFBitmapConfig bitmapConfig = PDFBitmapConfig.argb8888,
+    PDFImageFormat format = PDFImageFormat.png,
+    int quality = 100,
+    bool diskCache = false,
+    int? chunkSize,
+    String? requestId,
+    int priority = 0,
+    PDFOutputMode output = PDFOutputMode.base64,
+  }) {
+    assert(filePath != null || pdfData != null || sources != null);
+    final String id = requestId ?? _generateRequestId('thumbnails');
+    late StreamController<PDFThumbnail> controller;
+    StreamSubscription<Map<dynamic, dynamic>>? subscription;
+
+    controller = StreamController<PDFThumbnail>(
+      onListen: () {
+        subscription = _eventsFor(id).listen((event) {
+          if (event['event'] == 'thumbnails') {
+            final int sourceIndex = event['sourceIndex'] ?? 0;
+            for (final thumbnail in event['thumbnails'] as List<dynamic>) {
+              controller.add(
+                  PDFThumbnail.fromMap(thumbnail, sourceIndex: sourceIndex));
+            }
+          } else if (event['event'] == 'error') {
+            controller.addError(PlatformException(
+              code: 'ThumbnailError',
+              message: 'Failed to generate thumbnails.',
+              details: event,
+            ));
+          }
+        });
+        _channel.invokeMethod('generateThumbnails', {
+          'filePath': filePath,
+          'pdfData': pdfData,
+          'password': password,
+          'sources': sources?.map((source) => source.toMap()).toList(),
+          'pages': pages
+              ?.map((page) => page is PDFPageRange ? page.toMap() : page)
+              .toList(),
+          'width': width,
+          'height': height,
+          'dpi': dpi,
+          'bitmapConfig': bitmapConfig.nativeName,
+          'format': format.name,
+          'quality': quality,
+          'diskCache': diskCache,
+          'chunkSize': chunkSize,
+          'requestId': id,
+          'priority': priority,
+          'output': output.name,
+        }).catchError((Object error) {
+          controller.addError(error);
+        }).whenComplete(() async {
+          // رویدادها پیش از نتیجه فراخوانی ارسال می‌شوند
+          await subscription?.cancel();
+          await controller.close();
+        });
+      },
+      onCancel: () async {
+        await subscription?.cancel();
+        await cancel(id);
+      },
+    );
+    return controller.stream;
+  }
+
+  /// کار با شناسه `requestId` را لغو می‌کند. اگر کار هنوز شروع نشده باشد اجرا نمی‌شود
+  /// و در غیر این صورت بین صفحات متوقف می‌شود؛ Future آن با خطای `Cancelled` کامل می‌شود.
+  static Future<bool> cancel(String requestId) async {
+    final bool? cancelled =
+        await _channel.invokeMethod('cancel', {'requestId': requestId});
+    return cancelled ?? false;
+  }
+
+  /// آمار کش مشترک اسناد (hits، misses، evictions، تعداد و حجم اسناد باز).
+  static Future<Map<String, dynamic>?> getCacheStats() async {
+    final Map<dynamic, dynamic>? stats =
+        await _channel.invokeMethod('getCacheStats');
+    return stats?.cast<String, dynamic>();
+  }
+
+  /// سقف تعداد و حجم (بایت) اسناد نگه‌داشته‌شده در کش را تنظیم می‌کند.
+  static Future<void> configureCache({int? maxDocuments, int? maxBytes}) {
+    return _channel.invokeMethod('configureCache', {
+      'maxDocuments': maxDocuments,
+      'maxBytes': maxBytes,
+    });
+  }
+
+  /// تمام اسنادی که در حال استفاده نیستند را از کش خارج و می‌بندد.
+  static Future<void> clearCache() {
+    return _channel.invokeMethod('clearCache');
+  }
+
+  /// متن سند را صفحه به صفحه در پس‌زمینه نمایه می‌کند و پس از نمایه شدن هر صفحه
+  /// وضعیت نمایه را روی Stream می‌فرستد؛ هر صفحه بلافاصله با [searchText] قابل جست‌وجو است.
+  /// با `persist` نمایه در پوشه کش برنامه ذخیره می‌شود و دفعه بعد بدون استخراج دوباره
+  /// بارگذاری یا از آخرین صفحه ادامه داده می‌شود. اگر نمایه کامل باشد Stream بلافاصله بسته می‌شود.
+  static Stream<PDFTextIndexStatus> indexText({
+    String? filePath,
+    Uint8List? pdfData,
+    String? password,
+    bool persist = false,
+    String? requestId,
+    int priority = 0,
+  }) {
+    assert(filePath != null || pdfData != null);
+    final String id = requestId ?? _generateRequestId('text');
+    late StreamController<PDFTextIndexStatus> controller;
+    StreamSubscription<Map<dynamic, dynamic>>? subscription;
+
+    controller = StreamController<PDFTextIndexStatus>(
+      onListen: () {
+        subscription = _eventsFor(id).listen((event) {
+          if (event['event'] == 'textPage') {
+            controller.add(PDFTextIndexStatus.fromMap(event));
+          }
+        });
+        _channel.invokeMethod('indexText', {
+          'filePath': filePath,
+          'pdfData': pdfData,
+          'password': password,
+          'persist': persist,
+          'requestId': id,
+          'priority': priority,
+        }).catchError((Object error) {
+          controller.addError(error);
+        }).whenComplete(() async {
+          await subscription?.cancel();
+          await controller.close();
+        });
+      },
+      onCancel: () async {
+        await subscription?.cancel();
+        await cancel(id);
+      },
+    );
+    return controller.stream;
+  }
+
+  /// عبارت `query` (واژه‌های پشت سر هم، بدون حساسیت به حروف بزرگ و کوچک) را در نمایه
+  /// سند جست‌وجو می‌کند. جست‌وجو نمایه‌سازی را آغاز نمی‌کند و فقط صفحاتی را که تاکنون
+  /// با [indexText] نمایه شده‌اند (یا نمایه ذخیره‌شده) پوشش می‌دهد.
+  static Future<PDFTextSearchResult> searchText({
+    String? filePath,
+    Uint8List? pdfData,
+    String? password,
+    required String query,
+    int maxResults = 100,
+    int priority = 0,
+  }) async {
+    assert(filePath != null || pdfData != null);
+    final Map<dynamic, dynamic> result =
+        await _channel.invokeMethod('searchText', {
+      'filePath': filePath,
+      'pdfData': pdfData,
+      'password': password,
+      'query': query,
+      'maxResults': maxResults,
+      'priority': priority,
+    });
+    return PDFTextSearchResult.fromMap(result);
+  }
+
+  /// تعداد و ابعاد صفحات، فهرست مطالب و مشخصات سند را بدون ساختن نمایشگر و بدون رندر
+  /// می‌خواند. فقط ساختار سند تجزیه می‌شود و نتیجه برای هر منبع کش می‌شود، پس برای
+  /// پیمایش سریع تعداد زیادی سند مناسب است.
+  static Future<PDFDocumentInfo> getDocumentInfo({
+    String? filePath,
+    Uint8List? pdfData,
+    String? password,
+    int priority = 0,
+  }) async {
+    assert(filePath != null || pdfData != null);
+    final Map<dynamic, dynamic> info =
+        await _channel.invokeMethod('getDocumentInfo', {
+      'filePath': filePath,
+      'pdfData': pdfData,
+      'password': password,
+      'priority': priority,
+    });
+    return PDFDocumentInfo.fromMap(info);
+  }
+
+  /// نمایه متن یک سند یا در نبود منبع همه نمایه‌ها را از حافظه حذف می‌کند؛
+  /// با `deletePersisted` نمایه‌های ذخیره‌شده روی دیسک نیز حذف می‌شوند.
+  static Future<void> clearTextIndex({
+    String? filePath,
+    Uint8List? pdfData,
+    String? password,
+    bool deletePersisted = false,
+  }) {
+    return _channel.invokeMethod('clearTextIndex', {
+      'filePath': filePath,
+      'pdfData': pdfData,
+      'password': password,
+      'deletePersisted': deletePersisted,
+    });
+  }
+
+  /// آمار کش دیسک تصاویر بندانگشتی (hits، misses، files، bytes، maxBytes).
+  static Future<Map<String, dynamic>?> getThumbnailCacheStats() async {
+    final Map<dynamic, dynamic>? stats =
+        await _channel.invokeMethod('getThumbnailCacheStats');
+    return stats?.cast<String, dynamic>();
+  }
+
+  /// سقف حجم (بایت) کش دیسک تصاویر بندانگشتی را تنظیم می‌کند (پیش‌فرض 50 مگابایت).
+  static Future<void> configureThumbnailCache({int? maxBytes}) {
+    return _channel
+        .invokeMethod('configureThumbnailCache', {'maxBytes': maxBytes});
+  }
+
+  /// همه فایل‌های خروجی حالت [PDFOutputMode.file] را حذف می‌کند.
+  /// مسیرهایی که پیش‌تر برگردانده شده‌اند دیگر معتبر نیستند.
+  static Future<void> clearOutputFiles() {
+    return _channel.invokeMethod('clearOutputFiles');
+  }
+
+  /// همه فایل‌های کش دیسک تصاویر بندانگشتی را حذف می‌کند.
+  static Future<void> clearThumbnailCache() {
+    return _channel.invokeMethod('clearThumbnailCache');
+  }
+
+  /// قدیمی‌ترین فایل‌های کش دیسک را تا رسیدن حجم کل به `maxBytes` حذف می‌کند.
+  static Future<Map<String, dynamic>?> trimThumbnailCache(int maxBytes) async {
+    final Map<dynamic, dynamic>? stats = await _channel
+        .invokeMethod('trimThumbnailCache', {'maxBytes': maxBytes});
+    return stats?.cast<String, dynamic>();
+  }
+
+  /// مصرف حافظه فرایند (heap جاوا و native) و وضعیت کش‌های پلاگین در اندروید.
+  static Future<Map<String, dynamic>?> getMemoryInfo() async {
+    final Map<dynamic, dynamic>? info =
+        await _channel.invokeMethod('getMemoryInfo');
+    return info?.cast<String, dynamic>();
+  }
+
+  /// اسناد باز، بیت‌مپ‌های نگه‌داشته‌شده، نمایه‌های متن حافظه و کش رندر نمایشگرها را
+  /// آزاد می‌کند (نمایشگرها فقط صفحات قابل مشاهده را دوباره رندر می‌کنند) و وضعیت حافظه
+  /// را برمی‌گرداند. پلاگین هنگام onTrimMemory از سطح RUNNING_LOW خودکار همین کار را می‌کند.
+  static Future<Map<String, dynamic>?> releaseMemory() async {
+    final Map<dynamic, dynamic>? info =
+        await _channel.invokeMethod('releaseMemory');
+    return info?.cast<String, dynamic>();
+  }
+
+  /// سقف بودجه حافظه مشترک نمایشگرها، اسناد باز و تصاویر بندانگشتی در اندروید.
+  /// پیش‌فرض یک چهارم heap قابل استفاده است. مصرف‌کننده‌ای که جا نداشته باشد کیفیت را
+  /// پایین می‌آورد و هرگز منتظر آزاد شدن بودجه نمی‌ماند.
+  static Future<Map<String, dynamic>?> configureMemoryBudget(
+      {int? maxBytes}) async {
+    final Map<dynamic, dynamic>? stats = await _channel
+        .invokeMethod('configureMemoryBudget', {'maxBytes': maxBytes});
+    return stats?.cast<String, dynamic>();
+  }
+
+  /// مصرف فعلی بودجه حافظه به تفکیک مصرف‌کننده (views، documents، thumbnails).
+  static Future<Map<String, dynamic>?> getMemoryBudget() async {
+    final Map<dynamic, dynamic>? stats =
+        await _channel.invokeMethod('getMemoryBudget');
+    return stats?.cast<String, dynamic>();
+  }
 }
 
 enum FitPolicy { WIDTH, HEIGHT, BOTH }
 
+/// وضعیت دریافت سندی که با [PDFView.pdfStream] تکه به تکه فرستاده می‌شود.
+class PDFLoadProgress {
+  final int receivedBytes;
+  final int? totalBytes;
+
+  /// آخرین تکه رسیده است و سند باز می‌شود؛ پیش از آن هیچ صفحه‌ای نمایش داده نمی‌شود.
+  final bool complete;
+
+  PDFLoadProgress._fromMap(Map<dynamic, dynamic> map)
+      : receivedBytes = map['receivedBytes'],
+        totalBytes = map['totalBytes'],
+        complete = map['complete'];
+
+  double? get fraction =>
+      totalBytes != null && totalBytes! > 0 ? receivedBytes / totalBytes! : null;
+}
+
+/// منابع تکه‌ای برای [PDFView.pdfStream].
+class PDFStreamSources {
+  PDFStreamSources._();
+
+  /// سند را با خواندن بازه‌های پشت‌سرهم از یک خواننده بازه‌ای (مثلاً درخواست‌های HTTP Range)
+  /// به صورت تکه‌های `chunkSize` بایتی می‌فرستد.
+  static Stream<List<int>> ranged(PDFRangeReader read, int length,
+      {int chunkSize = 64 * 1024}) async* {
+    for (int offset = 0; offset < length; offset += chunkSize) {
+      final int size =
+          offset + chunkSize > length ? length - offset : chunkSize;
+      yield await read(offset, size);
+    }
+  }
+
+  /// جایگزین محلی یک منبع شبکه برای آزمایش: فایل با همان خواندن بازه‌ای و در صورت
+  /// تعیین `delay` با مکث پس از هر تکه فرستاده می‌شود.
+  static Stream<List<int>> file(String path,
+      {int chunkSize = 64 * 1024, Duration? delay}) async* {
+    final RandomAccessFile file = await File(path).open();
+    try {
+      yield* ranged((int offset, int length) async {
+        if (delay != null) {
+          await Future<void>.delayed(delay);
+        }
+        await file.setPosition(offset);
+        return file.read(length);
+      }, await file.length(), chunkSize: chunkSize);
+    } finally {
+      await file.close();
+    }
+  }
+}
+
+/// نحوه ارسال رویدادهای تغییر صفحه و اسکرول از اندروید.
+/// [immediate] هر رویداد را بی‌درنگ می‌فرستد، [throttle] حداکثر یک بار در هر
+/// [PDFView.eventInterval] و [scrollEnd] فقط آخرین مقدار را پس از توقف اسکرول.
+enum PDFEventMode { immediate, throttle, scrollEnd }
+
+/// پروفایل پایه رندر در اندروید. [lowMemory] بیت‌مپ‌های RGB_565، کش کوچک و بدون
+/// پیش‌بارگذاری؛ [balanced] رفتار پیش‌فرض؛ [highQuality] ARGB_8888 با antialiasing،
+/// کش بزرگ‌تر و پیش‌بارگذاری دورتر.
+enum PDFRenderProfile { lowMemory, balanced, highQuality }
+
 class PDFView extends StatefulWidget {
   const PDFView({
     Key? key,
@@ -133,7 +936,22 @@ class PDFView extends StatefulWidget {
     this.fitPolicy = FitPolicy.WIDTH,
     this.preventLinkNavigation = false,
     this.backgroundColor,
-  })  : assert(filePath != null || pdfData != null),
+    this.eventMode = PDFEventMode.immediate,
+    this.eventInterval,
+    this.renderProfile = PDFRenderProfile.balanced,
+    this.bestQuality,
+    this.antialiasing,
+    this.renderCacheSize,
+    this.partSize,
+    this.preloadOffset,
+    this.spillPdfData = false,
+    this.enableMetrics = false,
+    this.metricsInterval,
+    this.onMetrics,
+    this.pdfStream,
+    this.pdfStreamLength,
+    this.onLoadProgress,
+  })  : assert(filePath != null || pdfData != null || pdfStream != null),
         super(key: key);
 
   @override
@@ -162,6 +980,56 @@ class PDFView extends StatefulWidget {
   final bool fitEachPage;
   final bool preventLinkNavigation;
   final Color? backgroundColor;
+
+  /// در اندروید رویدادهای [onPageChanged] و [onScroll] هنگام fling و اسکرول ادغام می‌شوند تا
+  /// پیام‌های کانال کم شود؛ از هر رویداد فقط آخرین مقدار فرستاده می‌شود.
+  final PDFEventMode eventMode;
+
+  /// بازه ادغام رویدادها؛ پیش‌فرض ۱۰۰ میلی‌ثانیه برای throttle و ۱۵۰ برای scrollEnd.
+  final Duration? eventInterval;
+
+  /// تنظیمات رندر اندروید؛ مقادیر null از [renderProfile] گرفته می‌شوند. اثر آن‌ها با
+  /// بخش `cache` سنجه‌ها ([enableMetrics]) قابل اندازه‌گیری است. اندازه کش، اندازه بخش‌ها
+  /// و فاصله پیش‌بارگذاری در کتابخانه سراسری‌اند و برای همه نمایشگرها اعمال می‌شوند.
+  final PDFRenderProfile renderProfile;
+  final bool? bestQuality;
+  final bool? antialiasing;
+
+  /// بیشینه تعداد بخش‌های رندرشده در کش.
+  final int? renderCacheSize;
+
+  /// اندازه ضلع هر بخش رندر بر حسب پیکسل.
+  final double? partSize;
+
+  /// فاصله پیش‌بارگذاری در جهت اسکرول بر حسب dp (گرد به عدد صحیح)؛ تغییر آن سند را
+  /// دوباره بارگذاری می‌کند.
+  final double? preloadOffset;
+
+  /// در اندروید `pdfData` یک بار در فایل موقت نوشته می‌شود و نمایشگر و ابزارها از همان
+  /// فایل می‌خوانند تا اسناد بزرگ چند بار در حافظه کپی نشوند. فایل با dispose حذف می‌شود.
+  final bool spillPdfData;
+
+  /// در اندروید سنجه‌های نمایشگر (زمان بارگذاری و اولین رندر، تأخیر رندر صفحات، کش بخش‌ها و
+  /// حافظه بیت‌مپ، تأخیر فراخوانی متدها و تعداد رویدادها) ثبت می‌شوند و با
+  /// [PDFViewController.getMetrics] خوانده می‌شوند. بدون آن هیچ هزینه‌ای ندارد.
+  /// کش نمایشگر فقط هنگام خواندن سنجه‌ها نمونه‌برداری می‌شود؛ اگر نسخه کتابخانه رندر
+  /// دسترسی به آن را ندهد `cachedParts`، `bitmapBytes` و `cache.partsEvicted` برابر null هستند.
+  final bool enableMetrics;
+
+  /// اگر همراه با [enableMetrics] داده شود سنجه‌ها در این فاصله به [onMetrics] فرستاده می‌شوند.
+  final Duration? metricsInterval;
+  final MetricsCallback? onMetrics;
+
+  /// فقط در اندروید پشتیبانی می‌شود؛ در سایر سکوها به [onError] گزارش و Stream خوانده نمی‌شود.
+  /// در اندروید سند به صورت تکه‌ای از این Stream دریافت و در فایل موقت نوشته می‌شود و
+  /// پیشرفت آن به [onLoadProgress] گزارش می‌شود. این فقط انتقال تکه‌ای با گزارش پیشرفت
+  /// است: نمایشگر فقط فایل کامل را باز می‌کند و نمایش پس از رسیدن آخرین تکه آغاز می‌شود.
+  /// برای منابع شبکه و فایل از [PDFStreamSources] استفاده کنید.
+  final Stream<List<int>>? pdfStream;
+
+  /// طول کل سند در صورت معلوم بودن، برای گزارش درصد پیشرفت.
+  final int? pdfStreamLength;
+  final LoadProgressCallback? onLoadProgress;
 }
 
 class _PDFViewState extends State<PDFView> {
@@ -239,6 +1107,11 @@ class _CreationParams {
   _CreationParams({
     this.filePath,
     this.pdfData,
+    this.spillPdfData = false,
+    this.enableMetrics = false,
+    this.metricsInterval,
+    this.streaming = false,
+    this.streamLength,
     this.settings,
   });
 
@@ -246,18 +1119,33 @@ class _CreationParams {
     return _CreationParams(
       filePath: widget.filePath,
       pdfData: widget.pdfData,
+      spillPdfData: widget.spillPdfData,
+      enableMetrics: widget.enableMetrics,
+      metricsInterval: widget.metricsInterval,
+      streaming: widget.pdfStream != null,
+      streamLength: widget.pdfStreamLength,
       settings: _PDFViewSettings.fromWidget(widget),
     );
   }
 
   final String? filePath;
   final Uint8List? pdfData;
+  final bool spillPdfData;
+  final bool enableMetrics;
+  final Duration? metricsInterval;
+  final bool streaming;
+  final int? streamLength;
   final _PDFViewSettings? settings;
 
   Map<String, dynamic> toMap() {
     Map<String, dynamic> params = {
       'filePath': filePath,
       'pdfData': pdfData,
+      'spillPdfData': spillPdfData,
+      'metrics': enableMetrics,
+      'metricsInterval': metricsInterval?.inMilliseconds,
+      'streaming': streaming,
+      'streamLength': streamLength,
     };
     params.addAll(settings!.toMap());
     return params;
@@ -278,6 +1166,14 @@ class _PDFViewSettings {
     this.preventLinkNavigation,
     this.backgroundColor,
     this.onScroll,
+    this.eventMode,
+    this.eventInterval,
+    this.renderProfile,
+    this.bestQuality,
+    this.antialiasing,
+    this.renderCacheSize,
+    this.partSize,
+    this.preloadOffset,
   });
 
   static _PDFViewSettings fromWidget(PDFView widget) {
@@ -294,6 +1190,14 @@ class _PDFViewSettings {
       preventLinkNavigation: widget.preventLinkNavigation,
       backgroundColor: widget.backgroundColor,
       onScroll: widget.onScroll,
+      eventMode: widget.eventMode,
+      eventInterval: widget.eventInterval,
+      renderProfile: widget.renderProfile,
+      bestQuality: widget.bestQuality,
+      antialiasing: widget.antialiasing,
+      renderCacheSize: widget.renderCacheSize,
+      partSize: widget.partSize,
+      preloadOffset: widget.preloadOffset,
     );
   }
 
@@ -309,6 +1213,14 @@ class _PDFViewSettings {
   final bool? preventLinkNavigation;
   final Color? backgroundColor;
   final ScrollChangedCallback? onScroll;
+  final PDFEventMode? eventMode;
+  final Duration? eventInterval;
+  final PDFRenderProfile? renderProfile;
+  final bool? bestQuality;
+  final bool? antialiasing;
+  final int? renderCacheSize;
+  final double? partSize;
+  final double? preloadOffset;
 
   Map<String, dynamic> toMap() {
     return <String, dynamic>{
@@ -324,6 +1236,14 @@ class _PDFViewSettings {
       'preventLinkNavigation': preventLinkNavigation,
       'backgroundColor': backgroundColor?.value,
       'onScroll': onScroll != null,
+      'eventMode': eventMode?.name,
+      'eventInterval': eventInterval?.inMilliseconds,
+      'renderProfile': renderProfile?.name,
+      'bestQuality': bestQuality,
+      'antialiasing': antialiasing,
+      'cacheSize': renderCacheSize,
+      'partSize': partSize,
+      'preloadOffset': preloadOffset,
     };
   }
 
@@ -332,6 +1252,24 @@ class _PDFViewSettings {
     if (enableSwipe != newSettings.enableSwipe) {
       updates['enableSwipe'] = newSettings.enableSwipe;
     }
+    if (swipeHorizontal != newSettings.swipeHorizontal) {
+      updates['swipeHorizontal'] = newSettings.swipeHorizontal;
+    }
+    if (password != newSettings.password) {
+      updates['password'] = newSettings.password;
+    }
+    if (nightMode != newSettings.nightMode) {
+      updates['nightMode'] = newSettings.nightMode;
+    }
+    if (autoSpacing != newSettings.autoSpacing) {
+      updates['autoSpacing'] = newSettings.autoSpacing;
+    }
+    if (fitPolicy != newSettings.fitPolicy) {
+      updates['fitPolicy'] = newSettings.fitPolicy.toString();
+    }
+    if (backgroundColor != newSettings.backgroundColor) {
+      updates['backgroundColor'] = newSettings.backgroundColor?.value;
+    }
     if (pageFling != newSettings.pageFling) {
       updates['pageFling'] = newSettings.pageFling;
     }
@@ -341,6 +1279,33 @@ class _PDFViewSettings {
     if (preventLinkNavigation != newSettings.preventLinkNavigation) {
       updates['preventLinkNavigation'] = newSettings.preventLinkNavigation;
     }
+    if ((onScroll != null) != (newSettings.onScroll != null)) {
+      updates['onScroll'] = newSettings.onScroll != null;
+    }
+    if (eventMode != newSettings.eventMode) {
+      updates['eventMode'] = newSettings.eventMode?.name;
+    }
+    if (eventInterval != newSettings.eventInterval) {
+      updates['eventInterval'] = newSettings.eventInterval?.inMilliseconds;
+    }
+    if (renderProfile != newSettings.renderProfile) {
+      updates['renderProfile'] = newSettings.renderProfile?.name;
+    }
+    if (bestQuality != newSettings.bestQuality) {
+      updates['bestQuality'] = newSettings.bestQuality;
+    }
+    if (antialiasing != newSettings.antialiasing) {
+      updates['antialiasing'] = newSettings.antialiasing;
+    }
+    if (renderCacheSize != newSettings.renderCacheSize) {
+      updates['cacheSize'] = newSettings.renderCacheSize;
+    }
+    if (partSize != newSettings.partSize) {
+      updates['partSize'] = newSettings.partSize;
+    }
+    if (preloadOffset != newSettings.preloadOffset) {
+      updates['preloadOffset'] = newSettings.preloadOffset;
+    }
     return updates;
   }
 }
@@ -353,6 +1318,38 @@ class PDFViewController {
         _widget = widget {
     _settings = _PDFViewSettings.fromWidget(widget);
     _channel.setMethodCallHandler(_onMethodCall);
+    if (widget.pdfStream != null) {
+      if (defaultTargetPlatform == TargetPlatform.android) {
+        _sendStream(widget.pdfStream!);
+      } else {
+        widget.onError
+            ?.call('pdfStream is only supported on Android ($defaultTargetPlatform).');
+      }
+    }
+  }
+
+  /// تکه‌ها یکی‌یکی و پس از تأیید تکه قبلی فرستاده می‌شوند تا حافظه و کانال پر نشوند.
+  Future<void> _sendStream(Stream<List<int>> stream) async {
+    try {
+      await for (final List<int> chunk in stream) {
+        if (_widget == null) return;
+        await _channel.invokeMethod('appendData', {
+          'data': chunk is Uint8List ? chunk : Uint8List.fromList(chunk),
+        });
+      }
+      if (_widget == null) return;
+      await _channel.invokeMethod('finishData');
+    } catch (error) {
+      if (_widget == null) return;
+      try {
+        await _channel.invokeMethod('finishData', {'error': error.toString()});
+      } on PlatformException {
+        // نمایشگر دیگر در حال دریافت نیست (مثلاً بسته شده است)
+        _widget?.onError?.call(error.toString());
+      } on MissingPluginException {
+        _widget?.onError?.call(error.toString());
+      }
+    }
   }
 
   void dispose() {
@@ -394,6 +1391,13 @@ class PDFViewController {
           call.arguments['y'],
         );
         return null;
+      case 'onLoadProgress':
+        widget.onLoadProgress?.call(PDFLoadProgress._fromMap(call.arguments));
+        return null;
+      case 'onMetrics':
+        final Map<dynamic, dynamic> metrics = call.arguments;
+        widget.onMetrics?.call(metrics.cast<String, dynamic>());
+        return null;
     }
     throw MissingPluginException(
         '${call.method} was invoked but has no handler');
@@ -404,6 +1408,19 @@ class PDFViewController {
     return pageCount;
   }
 
+  /// ابعاد اصلی صفحات بر حسب point. در اندروید نمایشگرهایی که یک سند را نشان می‌دهند
+  /// فایل (یا فایل موقت `pdfData`)، تعداد صفحات و همین ابعاد را یک بار می‌خوانند و به
+  /// اشتراک می‌گذارند؛ هر نمایشگر همچنان سند رندر (Pdfium) جداگانه‌ای باز می‌کند.
+  Future<List<Size>> getPageSizes() async {
+    final List<dynamic>? sizes = await _channel.invokeMethod('getPageSizes');
+    return (sizes ?? const [])
+        .map((size) => Size(
+              (size['width'] as num).toDouble(),
+              (size['height'] as num).toDouble(),
+            ))
+        .toList();
+  }
+
   Future<int?> getCurrentPage() async {
     final int? currentPage = await _channel.invokeMethod('currentPage');
     return currentPage;
@@ -433,15 +1450,41 @@ class PDFViewController {
 // تست
   /// قابلیت بهبودیافته: تمام تصاویر را به همراه فرمت اصلی آن‌ها استخراج می‌کند.
   /// این متد اکنون از طریق نمونه ویجت نیز قابل دسترسی است اما منطق آن به کد نیتیو مشترک منتقل شده.
-  Future<List<PDFImage>?> extractImages() async {
-    final List<dynamic>? imagesData =
-        await _channel.invokeMethod('extractImages');
+  Future<List<PDFImage>?> extractImages({
+    PDFOutputMode output = PDFOutputMode.base64,
+    PDFImageDecoding? decoding,
+  }) async {
+    final List<dynamic>? imagesData = await _channel.invokeMethod(
+        'extractImages', {'output': output.name, ...?decoding?.toMap()});
     if (imagesData == null) {
       return null;
     }
     return imagesData.map((imageData) => PDFImage.fromMap(imageData)).toList();
   }
 
+  /// سنجه‌های نمایشگر در حالت [PDFView.enableMetrics]؛ با `reset` شمارنده‌ها پس از خواندن صفر می‌شوند.
+  Future<Map<String, dynamic>?> getMetrics({bool reset = false}) async {
+    final Map<dynamic, dynamic>? metrics =
+        await _channel.invokeMethod('getMetrics', {'reset': reset});
+    return metrics?.cast<String, dynamic>();
+  }
+
+  /// کادرهای نتایج جست‌وجوی متن را روی صفحات برجسته می‌کند و جایگزین برجسته‌های قبلی می‌شود.
+  Future<void> setHighlights(List<PDFTextHit> hits, {Color? color}) {
+    return _channel.invokeMethod('setHighlights', <String, dynamic>{
+      'highlights': hits.map((hit) => hit.toMap()).toList(),
+      'color': color?.value,
+    });
+  }
+
+  Future<void> clearHighlights() => setHighlights(const <PDFTextHit>[]);
+
+  /// به صفحه نتیجه می‌رود و کادرهای آن را برجسته می‌کند.
+  Future<void> showTextHit(PDFTextHit hit, {Color? color}) async {
+    await setPage(hit.page);
+    await setHighlights([hit], color: color);
+  }
+
   Future<void> _updateWidget(PDFView widget) async {
     _widget = widget;
     await _updateSettings(_PDFViewSettings.fromWidget(widget));
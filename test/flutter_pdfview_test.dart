@@ -1,3 +1,6 @@
+import 'dart:convert';
+import 'dart:io';
+
 import 'package:flutter/material.dart';
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
@@ -187,4 +190,247 @@ void main() {
       );
     });
   });
+  group('PDFTools Model Tests', () {
+    test('PDFTextHit round-trips through toMap', () {
+      final hit = PDFTextHit.fromMap({
+        'page': 2,
+        'pageWidth': 200.0,
+        'pageHeight': 300.0,
+        'wordIndex': 7,
+        'boxes': [
+          {'left': 1.0, 'top': 2.0, 'right': 3.0, 'bottom': 4.0},
+        ],
+      });
+      final copy = PDFTextHit.fromMap(hit.toMap());
+
+      expect(copy.page, 2);
+      expect(copy.pageWidth, 200.0);
+      expect(copy.pageHeight, 300.0);
+      expect(copy.wordIndex, 7);
+      expect(copy.boxes.single.right, 3.0);
+    });
+
+    test('PDFThumbnail reads every output mode', () async {
+      final data = Uint8List.fromList([1, 2, 3]);
+      final base64 = PDFThumbnail.fromMap({
+        'data': base64Encode(data),
+        'width': 10,
+        'height': 20,
+        'page': 3,
+        'cached': true,
+      }, sourceIndex: 1);
+      expect(base64.bytes, data);
+      expect(base64.page, 3);
+      expect(base64.sourceIndex, 1);
+      expect(base64.cached, true);
+      expect(base64.degraded, false);
+
+      final raw = PDFThumbnail.fromMap({'bytes': data, 'degraded': true});
+      expect(raw.bytes, data);
+      expect(raw.degraded, true);
+
+      final dir = await Directory.systemTemp.createTemp('pdfview_test');
+      try {
+        final file = File('${dir.path}/thumbnail.png');
+        await file.writeAsBytes(data);
+        final fileThumbnail = PDFThumbnail.fromMap({'path': file.path});
+        expect(() => fileThumbnail.bytes, throwsStateError);
+        expect(await fileThumbnail.readBytes(), data);
+      } finally {
+        await dir.delete(recursive: true);
+      }
+    });
+
+    test('PDFImage keeps id, pages and dimensions', () async {
+      final image = PDFImage.fromMap({
+        'format': 'png',
+        'bytes': Uint8List.fromList([9]),
+        'id': 4,
+        'pages': [0, 2],
+        'width': 30,
+        'height': 40,
+      });
+      expect(image.format, 'png');
+      expect(image.id, 4);
+      expect(image.pages, [0, 2]);
+      expect(image.width, 30);
+      expect(image.height, 40);
+      expect(await image.readBytes(), [9]);
+    });
+  });
+
+  group('PDFTools Channel Tests', () {
+    const MethodChannel toolsChannel =
+        MethodChannel('plugins.endigo.io/pdfview_tools');
+    const EventChannel eventChannel =
+        EventChannel('plugins.endigo.io/pdfview_tools/events');
+    final List<MethodCall> calls = <MethodCall>[];
+    MockStreamHandlerEventSink? events;
+
+    setUp(() {
+      calls.clear();
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockStreamHandler(
+              eventChannel,
+              MockStreamHandler.inline(
+                onListen: (Object? arguments, MockStreamHandlerEventSink sink) {
+                  events = sink;
+                },
+              ));
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(toolsChannel,
+              (MethodCall methodCall) async {
+        calls.add(methodCall);
+        switch (methodCall.method) {
+          case 'generateThumbnail':
+            return {'bytes': Uint8List.fromList([1]), 'width': 4, 'height': 5};
+          case 'generateThumbnails':
+            final String id = methodCall.arguments['requestId'];
+            events?.success({
+              'requestId': id,
+              'event': 'thumbnails',
+              'sourceIndex': 1,
+              'thumbnails': [
+                {'data': base64Encode([2]), 'page': 0},
+                {'data': base64Encode([3]), 'page': 2},
+              ],
+            });
+            return {'requestId': id};
+          case 'extractImages':
+            return [
+              {'format': 'jpeg', 'data': base64Encode([7]), 'id': 1},
+            ];
+          case 'searchText':
+            return {
+              'hits': [
+                {
+                  'page': 0,
+                  'pageWidth': 100.0,
+                  'pageHeight': 100.0,
+                  'wordIndex': 2,
+                  'boxes': <dynamic>[],
+                },
+              ],
+              'indexedPages': 1,
+              'totalPages': 1,
+              'complete': true,
+            };
+          default:
+            return null;
+        }
+      });
+    });
+
+    tearDown(() {
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockMethodCallHandler(toolsChannel, null);
+      TestDefaultBinaryMessengerBinding.instance.defaultBinaryMessenger
+          .setMockStreamHandler(eventChannel, null);
+    });
+
+    test('PDFPageRange and PDFSource serialize for the channel', () {
+      expect(const PDFPageRange(1, 3).toMap(), {'start': 1, 'end': 3});
+      expect(const PDFSource(filePath: 'a.pdf', password: 'x').toMap(),
+          {'filePath': 'a.pdf', 'pdfData': null, 'password': 'x'});
+    });
+
+    test('generateThumbnails streams results of its own request', () async {
+      final thumbnails = await PDFTools.generateThumbnails(
+        filePath: 'test.pdf',
+        pages: [0, const PDFPageRange(2, 3)],
+        requestId: 'batch-1',
+      ).toList();
+      final call =
+          calls.firstWhere((call) => call.method == 'generateThumbnails');
+      expect(call.arguments['pages'], [
+        0,
+        {'start': 2, 'end': 3}
+      ]);
+      expect(thumbnails.map((thumbnail) => thumbnail.page), [0, 2]);
+      expect(thumbnails.first.sourceIndex, 1);
+    });
+
+    test('generateThumbnail sends render options and parses the result',
+        () async {
+      final thumbnail = await PDFTools.generateThumbnail(
+        filePath: 'test.pdf',
+        page: 2,
+        width: 100,
+        format: PDFImageFormat.jpeg,
+        output: PDFOutputMode.bytes,
+      );
+      expect(calls.single.method, 'generateThumbnail');
+      expect(calls.single.arguments['page'], 2);
+      expect(calls.single.arguments['width'], 100);
+      expect(calls.single.arguments['format'], 'jpeg');
+      expect(calls.single.arguments['output'], 'bytes');
+      expect(thumbnail!.width, 4);
+      expect(thumbnail.bytes, [1]);
+    });
+
+    test('extractImages parses deduplicated images', () async {
+      final images = await PDFTools.extractImages(filePath: 'test.pdf');
+      expect(images!.single.format, 'jpeg');
+      expect(images.single.id, 1);
+      expect(images.single.bytes, [7]);
+    });
+
+    test('searchText sends the query and parses hits', () async {
+      final result =
+          await PDFTools.searchText(filePath: 'test.pdf', query: 'hello');
+      expect(calls.single.arguments['query'], 'hello');
+      expect(result.hits.single.wordIndex, 2);
+      expect(result.status.complete, true);
+    });
+
+    test('configureMemoryBudget sends the cap', () async {
+      await PDFTools.configureMemoryBudget(maxBytes: 1024);
+      expect(calls.single.method, 'configureMemoryBudget');
+      expect(calls.single.arguments['maxBytes'], 1024);
+    });
+
+    test('clearOutputFiles reaches the tools channel', () async {
+      await PDFTools.clearOutputFiles();
+      expect(calls.single.method, 'clearOutputFiles');
+    });
+  });
+
+  group('PDF Streaming Tests', () {
+    test('ranged splits the document into consecutive chunks', () async {
+      final List<List<int>> requests = <List<int>>[];
+      final chunks =
+          await PDFStreamSources.ranged((int offset, int length) async {
+        requests.add([offset, length]);
+        return List<int>.filled(length, offset);
+      }, 10, chunkSize: 4).toList();
+
+      expect(requests, [
+        [0, 4],
+        [4, 4],
+        [8, 2]
+      ]);
+      expect(chunks.expand((chunk) => chunk).length, 10);
+    });
+
+    test('file streams the whole file', () async {
+      final dir = await Directory.systemTemp.createTemp('pdfview_test');
+      try {
+        final file = File('${dir.path}/doc.pdf');
+        await file.writeAsBytes(List<int>.generate(100, (i) => i));
+        final chunks =
+            await PDFStreamSources.file(file.path, chunkSize: 32).toList();
+        expect(chunks.map((chunk) => chunk.length), [32, 32, 32, 4]);
+        expect(chunks.expand((chunk) => chunk),
+            List<int>.generate(100, (i) => i));
+      } finally {
+        await dir.delete(recursive: true);
+      }
+    });
+
+    test('PDFView accepts a pdfStream instead of a path', () {
+      final view = PDFView(pdfStream: Stream<List<int>>.empty());
+      expect(view.pdfStream, isNotNull);
+      expect(view.filePath, isNull);
+    });
+  });
 }